@@ -0,0 +1,111 @@
+package by.touchme.commentservice.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.Cache;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for the local caches.
+ * Every thread walks its own slice of a shared, skewed key sequence, so hits and
+ * misses hit the same hot entries from all cores. Run {@link #main} to measure the
+ * throughput for 1, 2, 4... up to all available cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalCacheBenchmark {
+
+    private static final int SIZE = 1 << 20;
+    private static final int MASK = SIZE - 1;
+    private static final int CAPACITY = 1 << 14;
+
+    @Param({"LRU", "LFU", "TINYLFU"})
+    String cacheType;
+
+    Cache cache;
+    Long[] keys;
+
+    @Setup
+    public void setup() {
+        cache = createCache(cacheType);
+        keys = new Long[SIZE];
+
+        // Roughly Zipf distributed keys: a few hot ones and a long tail
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = (long) Math.pow(CAPACITY * 4.0, random.nextDouble());
+        }
+
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper read(ThreadState state) {
+        return cache.get(keys[state.index++ & MASK]);
+    }
+
+    @Benchmark
+    public Object readWrite(ThreadState state) {
+        Long key = keys[state.index++ & MASK];
+
+        if ((state.index & 7) == 0) {
+            cache.put(key, key);
+            return key;
+        }
+
+        return cache.get(key);
+    }
+
+    static Cache createCache(String cacheType) {
+        return switch (cacheType) {
+            case "LRU" -> new LRUCache("benchmark", CAPACITY);
+            case "LFU" -> new LFUCache("benchmark", CAPACITY, 10L * CAPACITY);
+            case "TINYLFU" -> new TinyLFUCache("benchmark", CAPACITY);
+            default -> throw new IllegalArgumentException("Unknown cache type " + cacheType);
+        };
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index;
+
+        @Setup
+        public void setup() {
+            index = new SplittableRandom().nextInt(SIZE);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(LocalCacheBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.CommentServiceApplication;
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.entity.Comment;
+import by.touchme.commentservice.mapper.CommentMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a page of comments from H2 (test profile) as managed entities copied by the mapper,
+ * the former read path, and as dtos projected by the query in a read-only transaction.
+ * Run {@link #main} to see the allocation per page in {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentReadBenchmark {
+
+    private static final int COMMENTS = 2000;
+    private static final Pageable PAGE = PageRequest.of(0, 100);
+
+    ConfigurableApplicationContext context;
+    CommentRepository commentRepository;
+    CommentMapper commentMapper;
+    TransactionTemplate readWrite;
+    TransactionTemplate readOnly;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(CommentServiceApplication.class)
+                .run("--spring.profiles.active=test", "--server.port=0",
+                        "--spring.jpa.show-sql=false", "--logging.level.root=warn");
+        commentRepository = context.getBean(CommentRepository.class);
+        commentMapper = context.getBean(CommentMapper.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Comment> comments = new ArrayList<>();
+
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment();
+            comment.setNewsId((long) i % 20);
+            comment.setUsername("User_" + i % 50);
+            comment.setText("Lorem ipsum dolor sit amet, consectetur adipiscing elit " + i);
+            comments.add(comment);
+        }
+
+        commentRepository.saveAll(comments);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CommentDto> entityPage() {
+        return readWrite.execute(status -> commentRepository.findAll(PAGE).map(commentMapper::modelToDto).getContent());
+    }
+
+    @Benchmark
+    public List<CommentDto> projectedPage() {
+        return readOnly.execute(status -> commentRepository.findAllDto(PAGE).getContent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CommentReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,27 @@
+package by.touchme.commentservice.aspect;
+
+import by.touchme.commentservice.datasource.ReplicaRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes the reads of the methods annotated with
+ * {@link by.touchme.commentservice.datasource.ReadFromPrimary} to the primary.
+ */
+@Component
+@Aspect
+public class ReadFromPrimaryAspect {
+
+    @Around("@annotation(by.touchme.commentservice.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReplicaRoutingDataSource.readFromPrimary(true);
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.readFromPrimary(previous);
+        }
+    }
+}
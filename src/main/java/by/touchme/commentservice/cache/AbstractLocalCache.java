@@ -0,0 +1,442 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Base class for the bounded in-process caches.
+ * Entries are kept in a {@link ConcurrentHashMap}, so a hit never blocks. The eviction
+ * policy is only changed while holding the eviction lock: writes take it directly,
+ * reads record the touched node in a {@link ReadBuffer} that is replayed by the next
+ * lock holder. Every policy operation must be O(1).
+ * <p>
+ * {@link #get(Object, Callable)} loads each missing key only once through a {@link SingleFlightLoader}.
+ * <p>
+ * Entries may expire a fixed time after they were written and/or last read. A read
+ * never returns an expired entry; expired entries are removed through a {@link TimerWheel}
+ * that is advanced whenever the eviction lock is taken, so there is no cleanup thread.
+ * <p>
+ * The cache is bounded either by the number of entries or, with a positive maximum
+ * weight, by the sum of the weights a {@link Weigher} assigns to the entries.
+ *
+ * @param <N> node type of the eviction policy
+ */
+public abstract class AbstractLocalCache<N extends AbstractLocalCache.Node> implements StatisticsCache {
+    private final String cacheName;
+    protected final int capacity;
+    protected final ConcurrentHashMap<Object, N> data;
+    private final ReentrantLock evictionLock;
+    private final ReadBuffer<N> readBuffer;
+    private final SingleFlightLoader loader;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+    private final TimerWheel<N> timerWheel;
+    private final long maxWeight;
+    private final Weigher weigher;
+    private volatile long weightedSize;
+    private final CacheStats stats;
+
+    protected AbstractLocalCache(String cacheName, int capacity) {
+        this(cacheName, capacity, null, null, null);
+    }
+
+    /**
+     * @param expireAfterWrite  time to live of an entry, {@code null} or zero disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} or zero disables it
+     * @param ticker            nanosecond clock, {@code null} for {@link System#nanoTime()}
+     */
+    protected AbstractLocalCache(String cacheName, int capacity,
+                                 Duration expireAfterWrite, Duration expireAfterAccess, LongSupplier ticker) {
+        this(cacheName, capacity, 0, null, expireAfterWrite, expireAfterAccess, ticker);
+    }
+
+    /**
+     * @param capacity          maximum number of entries, only the expected number if a maximum weight is set
+     * @param maxWeight         maximum total weight of the entries, 0 bounds the cache by capacity
+     * @param weigher           weight of an entry, required with a maximum weight
+     * @param expireAfterWrite  time to live of an entry, {@code null} or zero disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} or zero disables it
+     * @param ticker            nanosecond clock, {@code null} for {@link System#nanoTime()}
+     */
+    protected AbstractLocalCache(String cacheName, int capacity, long maxWeight, Weigher weigher,
+                                 Duration expireAfterWrite, Duration expireAfterAccess, LongSupplier ticker) {
+        if (maxWeight > 0 && weigher == null) {
+            throw new IllegalArgumentException("A weigher is required to bound the cache by weight");
+        }
+
+        this.cacheName = cacheName;
+        this.capacity = capacity;
+        this.data = new ConcurrentHashMap<>(capacity);
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer<>();
+        this.expireAfterWriteNanos = (expireAfterWrite != null) ? expireAfterWrite.toNanos() : 0;
+        this.expireAfterAccessNanos = (expireAfterAccess != null) ? expireAfterAccess.toNanos() : 0;
+
+        if (ticker == null) {
+            long origin = System.nanoTime();
+            ticker = () -> System.nanoTime() - origin;
+        }
+
+        this.ticker = ticker;
+        this.timerWheel = (expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0)
+                ? new TimerWheel<>(ticker.getAsLong())
+                : null;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.stats = new CacheStats();
+        this.loader = new SingleFlightLoader(stats);
+    }
+
+    @Override
+    public String getName() {
+        return cacheName;
+    }
+
+    /**
+     * @return the map of the cache nodes, it must not be modified
+     */
+    @Override
+    public Object getNativeCache() {
+        return data;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        N node = getLive(key);
+
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+
+        stats.recordHit();
+
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = ticker.getAsLong();
+        }
+
+        afterRead(node);
+
+        return new SimpleValueWrapper(node.value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = (wrapper != null) ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        return loader.load(key, valueLoader, k -> {
+            N node = getLive(k);
+            return (node != null) ? new SimpleValueWrapper(node.value) : null;
+        }, this::put);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        evictionLock.lock();
+
+        try {
+            long now = maintenance();
+            stats.recordPut();
+
+            N node = data.get(key);
+            int weight = weigh(key, value);
+
+            // Evicting every other entry would not make room for it, so it is not cached
+            // and only the previous value of the key is dropped
+            if (!fits(weight)) {
+                stats.recordRejection();
+
+                if (node != null) {
+                    removeNode(node);
+                }
+
+                return;
+            }
+
+            if (node != null) {
+                weightedSize += weight - node.weight;
+                node.weight = weight;
+                node.value = value;
+                node.writeTime = now;
+                node.accessTime = now;
+                onAccess(node);
+
+                // The new value may be heavier than the old one
+                if (isOverCapacity()) {
+                    evictOverCapacity();
+                }
+
+                return;
+            }
+
+            node = createNode(key, value);
+            node.weight = weight;
+            node.writeTime = now;
+            node.accessTime = now;
+            weightedSize += node.weight;
+            data.put(key, node);
+
+            if (timerWheel != null) {
+                timerWheel.schedule(node, expiresAt(node));
+            }
+
+            onInsert(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictionLock.lock();
+
+        try {
+            maintenance();
+
+            N node = data.get(key);
+
+            if (node != null) {
+                removeNode(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+
+        try {
+            drainReadBuffer();
+
+            for (N node : data.values()) {
+                node.retired = true;
+            }
+
+            data.clear();
+            weightedSize = 0;
+            onClear();
+
+            if (timerWheel != null) {
+                timerWheel.clear();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Number of entries currently held.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Long estimatedSize() {
+        return (long) data.size();
+    }
+
+    /**
+     * Sum of the entry weights, 0 if the cache has no weigher.
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Creates the policy node for a new entry.
+     */
+    protected abstract N createNode(Object key, Object value);
+
+    /**
+     * Links a node that was just added to {@link #data} and evicts entries
+     * through {@link #evictNode} until the cache fits its capacity again.
+     */
+    protected abstract void onInsert(N node);
+
+    /**
+     * Evicts entries through {@link #evictNode} until the cache fits its capacity again.
+     * Called after an update made an entry heavier.
+     */
+    protected abstract void evictOverCapacity();
+
+    /**
+     * Records a hit or an update of a live node.
+     */
+    protected abstract void onAccess(N node);
+
+    /**
+     * Unlinks a node that was removed from {@link #data}.
+     */
+    protected abstract void onRemove(N node);
+
+    /**
+     * Resets the policy after all entries were removed.
+     */
+    protected abstract void onClear();
+
+    /**
+     * @return {@code true} while the cache holds more entries than allowed
+     */
+    protected boolean isOverCapacity() {
+        return (maxWeight > 0) ? weightedSize > maxWeight : data.size() > capacity;
+    }
+
+    /**
+     * @return {@code false} if an entry of the weight exceeds the bound of the cache on its own
+     */
+    private boolean fits(int weight) {
+        return (maxWeight > 0) ? weight <= maxWeight : capacity > 0;
+    }
+
+    /**
+     * Removes the victim chosen by the policy. Called with the eviction lock held.
+     */
+    protected void evictNode(N node) {
+        removeNode(node);
+        stats.recordEviction();
+    }
+
+    private void removeNode(N node) {
+        data.remove(node.key, node);
+        weightedSize -= node.weight;
+        node.retired = true;
+        onRemove(node);
+
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+    }
+
+    /**
+     * @return the node of the key, {@code null} if it is absent or expired
+     */
+    private N getLive(Object key) {
+        N node = data.get(key);
+
+        if (node != null && timerWheel != null && expiresAt(node) <= ticker.getAsLong()) {
+            tryMaintenance();
+            return null;
+        }
+
+        return node;
+    }
+
+    private void afterRead(N node) {
+        if (readBuffer.offer(node) != ReadBuffer.SUCCESS) {
+            tryMaintenance();
+        }
+    }
+
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replays the buffered reads and removes expired entries. Called with the eviction lock held.
+     *
+     * @return current time of the ticker
+     */
+    private long maintenance() {
+        drainReadBuffer();
+
+        long now = ticker.getAsLong();
+
+        if (timerWheel != null) {
+            timerWheel.advance(now, node -> {
+                long expirationTime = expiresAt(node);
+
+                if (expirationTime > now) {
+                    timerWheel.schedule(node, expirationTime);
+                } else {
+                    evictNode(node);
+                }
+            });
+        }
+
+        return now;
+    }
+
+    private int weigh(Object key, Object value) {
+        return (weigher != null) ? (int) Math.min(weigher.weigh(key, value), Integer.MAX_VALUE) : 0;
+    }
+
+    private long expiresAt(N node) {
+        long time = Long.MAX_VALUE;
+
+        if (expireAfterWriteNanos > 0) {
+            time = node.writeTime + expireAfterWriteNanos;
+        }
+
+        if (expireAfterAccessNanos > 0) {
+            time = Math.min(time, node.accessTime + expireAfterAccessNanos);
+        }
+
+        return time;
+    }
+
+    private void drainReadBuffer() {
+        readBuffer.drainTo(node -> {
+            if (!node.retired) {
+                onAccess(node);
+            }
+        });
+    }
+
+    /**
+     * Cache entry. Policy and timer links are only touched while holding the eviction lock.
+     */
+    protected static class Node {
+        protected final Object key;
+        protected volatile Object value;
+        protected boolean retired;
+        int weight;
+        volatile long writeTime;
+        volatile long accessTime;
+        Node timerPrev;
+        Node timerNext;
+
+        protected Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
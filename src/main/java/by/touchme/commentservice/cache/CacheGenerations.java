@@ -0,0 +1,46 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generation counters that invalidate a whole group of cache entries without scanning
+ * the keys. Entries of a group put the current generation into their key, incrementing
+ * the generation makes all of them unreachable, and they age out of the cache.
+ * <p>
+ * The counters are entries of a cache themselves, so the redis and near caches share
+ * them between nodes. A counter that was evicted starts again at a random value,
+ * never at a generation that may still be part of a key.
+ */
+public class CacheGenerations {
+    private final Cache generations;
+
+    public CacheGenerations(Cache generations) {
+        this.generations = generations;
+    }
+
+    /**
+     * @return the current generation of the group
+     */
+    public long current(Object group) {
+        Cache.ValueWrapper wrapper = generations.get(group);
+
+        // JSON serializers may read a small long back as an integer
+        if (wrapper != null && wrapper.get() instanceof Number value) {
+            return value.longValue();
+        }
+
+        long initial = ThreadLocalRandom.current().nextLong();
+        Cache.ValueWrapper existing = generations.putIfAbsent(group, initial);
+        return (existing != null && existing.get() instanceof Number value) ? value.longValue() : initial;
+    }
+
+    /**
+     * Moves the group to a new generation. Must be called after the change is committed,
+     * so no entry of the new generation is filled from the old data.
+     */
+    public void increment(Object group) {
+        generations.put(group, current(group) + 1);
+    }
+}
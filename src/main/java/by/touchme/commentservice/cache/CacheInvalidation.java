@@ -0,0 +1,28 @@
+package by.touchme.commentservice.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Message that tells the other nodes to drop an entry from their local tier.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation implements Serializable {
+
+    /**
+     * Identifier of the node that changed the entry.
+     */
+    private String origin;
+
+    private String cacheName;
+
+    /**
+     * Key of the changed entry, {@code null} if the whole cache was cleared.
+     */
+    private String key;
+}
@@ -0,0 +1,9 @@
+package by.touchme.commentservice.cache;
+
+/**
+ * Broadcasts local tier invalidations to the other nodes.
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+    void publish(CacheInvalidation invalidation);
+}
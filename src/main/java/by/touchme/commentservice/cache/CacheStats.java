@@ -0,0 +1,110 @@
+package by.touchme.commentservice.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Statistics of a cache. The counters are {@link LongAdder}s, so recording never
+ * contends between threads; reading a counter sums its cells.
+ */
+public final class CacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private volatile LongConsumer loadTimeRecorder = nanos -> {
+    };
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordPut() {
+        puts.increment();
+    }
+
+    /**
+     * Records an entry removed by the policy or by expiration, not by an explicit evict.
+     */
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Records a put that was not cached because the cache had no room for the entry.
+     */
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    /**
+     * Calls the loader and records how long it took and whether it failed.
+     */
+    public <T> T load(Callable<T> loader) throws Exception {
+        long start = System.nanoTime();
+
+        try {
+            T value = loader.call();
+            long nanos = System.nanoTime() - start;
+            loadSuccesses.increment();
+            totalLoadTime.add(nanos);
+            loadTimeRecorder.accept(nanos);
+            return value;
+        } catch (Exception ex) {
+            loadFailures.increment();
+            totalLoadTime.add(System.nanoTime() - start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Passes the duration of every successful load in nanoseconds to the recorder, e.g. a histogram.
+     */
+    public void setLoadTimeRecorder(LongConsumer loadTimeRecorder) {
+        this.loadTimeRecorder = loadTimeRecorder;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccesses.sum();
+    }
+
+    public long loadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * Time spent loading values in nanoseconds.
+     */
+    public long totalLoadTime() {
+        return totalLoadTime.sum();
+    }
+}
@@ -1,106 +1,214 @@
 package by.touchme.commentservice.cache;
 
-import org.springframework.cache.Cache;
-import org.springframework.cache.support.SimpleValueWrapper;
-
-import java.util.Collections;
-import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-public class LFUCache implements Cache {
-    private final String cacheName;
-    private final int capacity;
-    private final Map<Object, Object> data;
-    private final Map<Object, Integer> frequency;
-    private final ReentrantReadWriteLock lock;
+import java.time.Duration;
+
+/**
+ * Least frequently used cache.
+ * Entries are grouped into buckets of equal frequency that form a list ordered by
+ * frequency. A hit moves the entry into the neighbouring bucket and the victim is
+ * taken from the lowest bucket, so hits, puts and evictions are O(1). Inside a bucket
+ * the entries are ordered by recency, so ties are broken by evicting the least
+ * recently used entry.
+ * <p>
+ * With a positive aging period all frequencies are halved after that many accesses,
+ * which lets formerly hot entries decay. Aging walks all entries once per period,
+ * which adds O(n / agingPeriod) to every access for n entries: constant only while
+ * the period is at least the number of entries.
+ */
+public class LFUCache extends AbstractLocalCache<LFUCache.Entry> {
+
+    /**
+     * Sentinel of the bucket list: {@code buckets.next} has the lowest frequency.
+     */
+    private final Bucket buckets;
+    private final long agingPeriod;
+    private long accesses;
 
     public LFUCache(String cacheName, int capacity) {
-        this.cacheName = cacheName;
-        this.capacity = capacity;
-        this.data = new ConcurrentHashMap<>(capacity);
-        this.frequency = new ConcurrentHashMap<>(capacity);
-        this.lock = new ReentrantReadWriteLock();
+        this(cacheName, capacity, 0);
     }
 
-    @Override
-    public String getName() {
-        return cacheName;
+    /**
+     * @param agingPeriod number of accesses after which all frequencies are halved, 0 disables aging
+     */
+    public LFUCache(String cacheName, int capacity, long agingPeriod) {
+        this(cacheName, capacity, agingPeriod, null, null);
     }
 
-    @Override
-    public Object getNativeCache() {
-        return null;
+    /**
+     * @param agingPeriod       number of accesses after which all frequencies are halved, 0 disables aging
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public LFUCache(String cacheName, int capacity, long agingPeriod,
+                    Duration expireAfterWrite, Duration expireAfterAccess) {
+        this(cacheName, capacity, 0, null, agingPeriod, expireAfterWrite, expireAfterAccess);
+    }
+
+    /**
+     * @param maxWeight         maximum total weight of the entries, 0 bounds the cache by capacity
+     * @param weigher           weight of an entry, required with a maximum weight
+     * @param agingPeriod       number of accesses after which all frequencies are halved, 0 disables aging
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public LFUCache(String cacheName, int capacity, long maxWeight, Weigher weigher, long agingPeriod,
+                    Duration expireAfterWrite, Duration expireAfterAccess) {
+        super(cacheName, capacity, maxWeight, weigher, expireAfterWrite, expireAfterAccess, null);
+        this.buckets = new Bucket(0);
+        this.buckets.prev = buckets;
+        this.buckets.next = buckets;
+        this.agingPeriod = agingPeriod;
     }
 
     @Override
-    public ValueWrapper get(Object key) {
-        lock.readLock().lock();
+    protected Entry createNode(Object key, Object value) {
+        return new Entry(key, value);
+    }
 
-        try {
-            if (!data.containsKey(key)) {
-                return null;
-            }
+    @Override
+    protected void onInsert(Entry node) {
+        // Evict before linking, otherwise the new entry would be the first victim.
+        // An entry that does not fit on its own was rejected before it was added.
+        evictOverCapacity();
+
+        Bucket first = buckets.next;
+        if (first.frequency != 1) {
+            first = insertBucketAfter(buckets, 1);
+        }
 
-            frequency.put(key, frequency.get(key) + 1);
+        first.append(node);
+        recordAccess();
+    }
 
-            return new SimpleValueWrapper(data.get(key));
-        } finally {
-            this.lock.readLock().unlock();
+    @Override
+    protected void evictOverCapacity() {
+        while (isOverCapacity() && buckets.next != buckets) {
+            evictNode(buckets.next.head.next);
         }
     }
 
     @Override
-    public <T> T get(Object key, Class<T> type) {
-        return null;
+    protected void onAccess(Entry node) {
+        Bucket bucket = node.bucket;
+        Bucket next = bucket.next;
+
+        if (next.frequency != bucket.frequency + 1) {
+            next = insertBucketAfter(bucket, bucket.frequency + 1);
+        }
+
+        bucket.remove(node);
+        removeIfEmpty(bucket);
+        next.append(node);
+        recordAccess();
     }
 
     @Override
-    public <T> T get(Object key, Callable<T> valueLoader) {
-        return null;
+    protected void onRemove(Entry node) {
+        Bucket bucket = node.bucket;
+        bucket.remove(node);
+        removeIfEmpty(bucket);
     }
 
     @Override
-    public void put(Object key, Object value) {
-        lock.writeLock().lock();
-
-        try {
-            int freq = 1;
-
-            if (this.data.containsKey(key)) {
-                freq += frequency.get(key);
-            } else if (data.size() >= capacity) {
-                // Add Tree for O(1) and order for remove only old record
-                Map.Entry<Object, Integer> removedEntry = Collections.min(
-                        frequency.entrySet(),
-                        Map.Entry.comparingByValue()
-                );
-                evict(removedEntry.getKey());
+    protected void onClear() {
+        buckets.prev = buckets;
+        buckets.next = buckets;
+        accesses = 0;
+    }
+
+    private void recordAccess() {
+        if (agingPeriod > 0 && ++accesses >= agingPeriod) {
+            accesses = 0;
+            age();
+        }
+    }
+
+    /**
+     * Halves every frequency. Buckets that end up with the same frequency are merged,
+     * entries of the less frequent bucket are treated as less recent.
+     */
+    private void age() {
+        Bucket bucket = buckets.next;
+
+        while (bucket != buckets) {
+            Bucket next = bucket.next;
+            long frequency = Math.max(1, bucket.frequency >> 1);
+            Bucket previous = bucket.prev;
+
+            if (previous != buckets && previous.frequency == frequency) {
+                for (Entry entry = bucket.head.next; entry != bucket.head; ) {
+                    Entry following = entry.next;
+                    bucket.remove(entry);
+                    previous.append(entry);
+                    entry = following;
+                }
+
+                removeIfEmpty(bucket);
+            } else {
+                bucket.frequency = frequency;
             }
 
-            data.put(key, value);
-            frequency.put(key, freq);
-        } finally {
-            lock.writeLock().unlock();
+            bucket = next;
         }
     }
 
-    @Override
-    public void evict(Object key) {
-        data.remove(key);
-        frequency.remove(key);
+    private Bucket insertBucketAfter(Bucket bucket, long frequency) {
+        Bucket inserted = new Bucket(frequency);
+        inserted.prev = bucket;
+        inserted.next = bucket.next;
+        bucket.next.prev = inserted;
+        bucket.next = inserted;
+        return inserted;
     }
 
-    @Override
-    public void clear() {
-        lock.writeLock().lock();
-
-        try {
-            data.clear();
-            frequency.clear();
-        } finally {
-            lock.writeLock().unlock();
+    private void removeIfEmpty(Bucket bucket) {
+        if (bucket.head.next == bucket.head) {
+            bucket.prev.next = bucket.next;
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    protected static final class Entry extends AbstractLocalCache.Node {
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(Object key, Object value) {
+            super(key, value);
+        }
+    }
+
+    /**
+     * Entries of the same frequency: {@code head.next} is the least recently used one.
+     */
+    private static final class Bucket {
+        private final Entry head;
+        private long frequency;
+        private Bucket prev;
+        private Bucket next;
+
+        private Bucket(long frequency) {
+            this.frequency = frequency;
+            this.head = new Entry(null, null);
+            this.head.prev = head;
+            this.head.next = head;
+        }
+
+        private void append(Entry entry) {
+            entry.bucket = this;
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+        }
+
+        private void remove(Entry entry) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,101 +1,112 @@
 package by.touchme.commentservice.cache;
 
-import org.springframework.cache.Cache;
-import org.springframework.cache.support.SimpleValueWrapper;
-
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-public class LRUCache implements Cache {
-    private final String cacheName;
-    private final int capacity;
-    private final Map<Object, Object> data;
-    private final LinkedList<Object> order;
-    private final ReentrantReadWriteLock lock;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Least recently used cache.
+ * Nodes form a doubly linked list ordered by recency: hits, puts and evictions
+ * only relink a node, so every operation is O(1).
+ */
+public class LRUCache extends AbstractLocalCache<LRUCache.Entry> {
+
+    /**
+     * Sentinel of the recency list: {@code head.next} is the most recently used node,
+     * {@code head.prev} the least recently used one.
+     */
+    private final Entry head;
 
     public LRUCache(String cacheName, int capacity) {
-        this.cacheName = cacheName;
-        this.capacity = capacity;
-        this.data = new ConcurrentHashMap<>(capacity);
-        this.order = new LinkedList<>();
-        this.lock = new ReentrantReadWriteLock();
+        this(cacheName, capacity, null, null);
     }
 
-    @Override
-    public String getName() {
-        return cacheName;
+    /**
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public LRUCache(String cacheName, int capacity, Duration expireAfterWrite, Duration expireAfterAccess) {
+        this(cacheName, capacity, expireAfterWrite, expireAfterAccess, null);
     }
 
-    @Override
-    public Object getNativeCache() {
-        return null;
+    /**
+     * @param maxWeight         maximum total weight of the entries, 0 bounds the cache by capacity
+     * @param weigher           weight of an entry, required with a maximum weight
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public LRUCache(String cacheName, int capacity, long maxWeight, Weigher weigher,
+                    Duration expireAfterWrite, Duration expireAfterAccess) {
+        super(cacheName, capacity, maxWeight, weigher, expireAfterWrite, expireAfterAccess, null);
+        this.head = new Entry(null, null);
+        this.head.prev = head;
+        this.head.next = head;
     }
 
-    @Override
-    public ValueWrapper get(Object key) {
-        lock.readLock().lock();
-
-        try {
-            if (!data.containsKey(key)) {
-                return null;
-            }
-
-            order.remove(key);
-            order.addFirst(key);
+    LRUCache(String cacheName, int capacity,
+             Duration expireAfterWrite, Duration expireAfterAccess, LongSupplier ticker) {
+        super(cacheName, capacity, expireAfterWrite, expireAfterAccess, ticker);
+        this.head = new Entry(null, null);
+        this.head.prev = head;
+        this.head.next = head;
+    }
 
-            return new SimpleValueWrapper(data.get(key));
-        } finally {
-            lock.readLock().unlock();
-        }
+    @Override
+    protected Entry createNode(Object key, Object value) {
+        return new Entry(key, value);
     }
 
     @Override
-    public <T> T get(Object key, Class<T> type) {
-        return null;
+    protected void onInsert(Entry node) {
+        linkFirst(node);
+        evictOverCapacity();
     }
 
     @Override
-    public <T> T get(Object key, Callable<T> valueLoader) {
-        return null;
+    protected void evictOverCapacity() {
+        while (isOverCapacity() && head.prev != head) {
+            evictNode(head.prev);
+        }
     }
 
     @Override
-    public void put(Object key, Object value) {
-        lock.writeLock().lock();
-
-        try {
-            if (data.containsKey(key)) {
-                order.remove(key);
-            } else if (data.size() >= capacity) {
-                Object keyRemoved = order.removeLast();
-                evict(keyRemoved);
-            }
-
-            data.put(key, value);
-            order.addFirst(key);
-        } finally {
-            lock.writeLock().unlock();
+    protected void onAccess(Entry node) {
+        if (head.next != node) {
+            unlink(node);
+            linkFirst(node);
         }
     }
 
     @Override
-    public void evict(Object key) {
-        data.remove(key);
-        order.remove(key);
+    protected void onRemove(Entry node) {
+        unlink(node);
     }
 
     @Override
-    public void clear() {
-        lock.writeLock().lock();
-
-        try {
-            data.clear();
-            order.clear();
-        } finally {
-            lock.writeLock().unlock();
+    protected void onClear() {
+        head.prev = head;
+        head.next = head;
+    }
+
+    private void linkFirst(Entry node) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+    }
+
+    private void unlink(Entry node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    protected static final class Entry extends AbstractLocalCache.Node {
+        private Entry prev;
+        private Entry next;
+
+        private Entry(Object key, Object value) {
+            super(key, value);
         }
     }
-}
\ No newline at end of file
+}
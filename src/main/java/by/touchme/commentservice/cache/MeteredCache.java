@@ -0,0 +1,101 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Records {@link CacheStats} for a cache that does not keep its own, like the redis cache.
+ * Evictions happen inside the delegate and are not counted.
+ */
+public class MeteredCache implements StatisticsCache {
+    private final Cache delegate;
+    private final CacheStats stats;
+
+    public MeteredCache(Cache delegate) {
+        this.delegate = delegate;
+        this.stats = new CacheStats();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+
+        if (wrapper != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+
+        return wrapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = (wrapper != null) ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            return stats.load(valueLoader);
+        });
+
+        if (loaded[0]) {
+            stats.recordMiss();
+            stats.recordPut();
+        } else {
+            stats.recordHit();
+        }
+
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        stats.recordPut();
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Long estimatedSize() {
+        return null;
+    }
+}
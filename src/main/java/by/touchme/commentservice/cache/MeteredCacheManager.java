@@ -0,0 +1,43 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the delegate into a {@link MeteredCache}.
+ */
+public class MeteredCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final ConcurrentMap<String, MeteredCache> caches;
+
+    public MeteredCacheManager(CacheManager delegate) {
+        this.delegate = delegate;
+        this.caches = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        MeteredCache cache = caches.get(name);
+
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache delegateCache = delegate.getCache(name);
+
+        if (delegateCache == null) {
+            return null;
+        }
+
+        return caches.computeIfAbsent(name, key -> new MeteredCache(delegateCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
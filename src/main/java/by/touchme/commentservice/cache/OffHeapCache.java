@@ -0,0 +1,375 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache that keeps its entries serialized in direct memory, outside of the java heap.
+ * Records are stored in chunks of a {@link SlabAllocator} as
+ * {@code [key length][value length][key][value]}; the heap only holds an open addressing
+ * index of primitive arrays (hash, chunk address and reference bit per slot), so the
+ * garbage collector never sees the cached values. Values are deserialized on every hit.
+ * <p>
+ * Keys are compared by their string form, like the keys of the redis cache.
+ * Entries are evicted with the CLOCK algorithm when the cache holds {@code capacity}
+ * entries or when no chunk of the needed size class is left.
+ */
+public class OffHeapCache implements StatisticsCache {
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final String cacheName;
+    private final int capacity;
+    private final RedisSerializer<Object> serializer;
+    private final SlabAllocator allocator;
+    private final ReentrantReadWriteLock lock;
+    private final SingleFlightLoader loader;
+    private final CacheStats stats;
+    private final int mask;
+    private final int[] hashes;
+    private final long[] addresses;
+    private final byte[] referenced;
+    private int size;
+    private int hand;
+
+    /**
+     * @param maxBytes   direct memory available for the entries
+     * @param serializer converts the values to bytes and back
+     */
+    public OffHeapCache(String cacheName, int capacity, long maxBytes, RedisSerializer<Object> serializer) {
+        this(cacheName, capacity, maxBytes, SlabAllocator.DEFAULT_SLAB_SIZE, serializer);
+    }
+
+    OffHeapCache(String cacheName, int capacity, long maxBytes, int slabSize, RedisSerializer<Object> serializer) {
+        this.cacheName = cacheName;
+        this.capacity = capacity;
+        this.serializer = serializer;
+        this.allocator = new SlabAllocator(maxBytes, slabSize);
+        this.lock = new ReentrantReadWriteLock();
+        this.stats = new CacheStats();
+        this.loader = new SingleFlightLoader(stats);
+
+        // Keep the load factor of the linear probing below 0.75
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity + capacity / 3) * 2 - 1);
+        this.mask = tableSize - 1;
+        this.hashes = new int[tableSize];
+        this.addresses = new long[tableSize];
+        this.referenced = new byte[tableSize];
+    }
+
+    @Override
+    public String getName() {
+        return cacheName;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        byte[] keyBytes = keyBytes(key);
+        int hash = hash(keyBytes);
+        byte[] valueBytes;
+
+        lock.readLock().lock();
+
+        try {
+            int slot = findSlot(keyBytes, hash);
+
+            if (slot < 0) {
+                stats.recordMiss();
+                return null;
+            }
+
+            stats.recordHit();
+
+            // Racy write of a flag, a lost update only makes the entry look older
+            referenced[slot] = 1;
+            valueBytes = readValue(addresses[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new SimpleValueWrapper(serializer.deserialize(valueBytes));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = (wrapper != null) ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        return loader.load(key, valueLoader, this::get, this::put);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        byte[] keyBytes = keyBytes(key);
+        byte[] valueBytes = serializer.serialize(value);
+        valueBytes = (valueBytes != null) ? valueBytes : new byte[0];
+        int hash = hash(keyBytes);
+        int sizeClass = allocator.sizeClass(HEADER_SIZE + keyBytes.length + valueBytes.length);
+
+        lock.writeLock().lock();
+
+        try {
+            stats.recordPut();
+            int slot = findSlot(keyBytes, hash);
+
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+
+            // Records larger than a slab are not cached
+            if (sizeClass < 0) {
+                stats.recordRejection();
+                return;
+            }
+
+            if (size >= capacity) {
+                int victim = findVictim(-1);
+
+                if (victim >= 0) {
+                    removeSlot(victim);
+                    stats.recordEviction();
+                }
+            }
+
+            long address = allocator.allocate(sizeClass);
+
+            while (address == 0) {
+                int victim = findVictim(sizeClass);
+
+                // All slabs belong to other size classes, this one cannot take any entry
+                if (victim < 0) {
+                    stats.recordRejection();
+                    return;
+                }
+
+                removeSlot(victim);
+                stats.recordEviction();
+                address = allocator.allocate(sizeClass);
+            }
+
+            write(address, keyBytes, valueBytes);
+
+            slot = hash & mask;
+
+            while (addresses[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            hashes[slot] = hash;
+            addresses[slot] = address;
+            referenced[slot] = 0;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        byte[] keyBytes = keyBytes(key);
+        int hash = hash(keyBytes);
+
+        lock.writeLock().lock();
+
+        try {
+            int slot = findSlot(keyBytes, hash);
+
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+
+        try {
+            Arrays.fill(addresses, 0);
+            Arrays.fill(referenced, (byte) 0);
+            allocator.clear();
+            size = 0;
+            hand = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of entries currently held.
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Long estimatedSize() {
+        return (long) size();
+    }
+
+    /**
+     * Direct memory reserved so far.
+     */
+    public long reservedBytes() {
+        lock.readLock().lock();
+
+        try {
+            return allocator.reservedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the index slot of the key, -1 if it is absent
+     */
+    private int findSlot(byte[] keyBytes, int hash) {
+        for (int slot = hash & mask; addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keyEquals(addresses[slot], keyBytes)) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Frees the chunk of the slot and shifts the following entries of the probe
+     * sequence back, so lookups never need tombstones.
+     */
+    private void removeSlot(int slot) {
+        allocator.free(addresses[slot]);
+        size--;
+
+        int gap = slot;
+
+        for (int i = (slot + 1) & mask; addresses[i] != 0; i = (i + 1) & mask) {
+            int ideal = hashes[i] & mask;
+
+            // Move the entry unless its ideal slot lies between the gap and itself
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                hashes[gap] = hashes[i];
+                addresses[gap] = addresses[i];
+                referenced[gap] = referenced[i];
+                gap = i;
+            }
+        }
+
+        addresses[gap] = 0;
+        referenced[gap] = 0;
+    }
+
+    /**
+     * Moves the clock hand to the next entry that was not referenced since the last
+     * sweep, clearing the reference bits it passes.
+     *
+     * @param sizeClass size class of the victim, -1 for any
+     * @return the slot of the victim, -1 if there is none
+     */
+    private int findVictim(int sizeClass) {
+        for (int i = 0; i < 2 * addresses.length; i++) {
+            int slot = hand;
+            hand = (hand + 1) & mask;
+
+            if (addresses[slot] == 0 || (sizeClass >= 0 && allocator.classOf(addresses[slot]) != sizeClass)) {
+                continue;
+            }
+
+            if (referenced[slot] != 0) {
+                referenced[slot] = 0;
+                continue;
+            }
+
+            return slot;
+        }
+
+        return -1;
+    }
+
+    private void write(long address, byte[] keyBytes, byte[] valueBytes) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+
+        slab.putInt(offset, keyBytes.length);
+        slab.putInt(offset + Integer.BYTES, valueBytes.length);
+        slab.put(offset + HEADER_SIZE, keyBytes);
+        slab.put(offset + HEADER_SIZE + keyBytes.length, valueBytes);
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+
+        if (slab.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (slab.get(offset + HEADER_SIZE + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private byte[] readValue(long address) {
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+
+        byte[] valueBytes = new byte[slab.getInt(offset + Integer.BYTES)];
+        slab.get(offset + HEADER_SIZE + slab.getInt(offset), valueBytes);
+        return valueBytes;
+    }
+
+    private static byte[] keyBytes(Object key) {
+        return String.valueOf(key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] keyBytes) {
+        int hash = Arrays.hashCode(keyBytes) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,120 @@
+package by.touchme.commentservice.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped buffer of cache reads.
+ * Readers publish the touched entry without taking a lock; the buffer is replayed
+ * against the eviction policy by whichever thread holds the eviction lock.
+ * A read is dropped when its stripe is contended or full, which only makes the
+ * recency information slightly less precise.
+ */
+final class ReadBuffer<E> {
+
+    /**
+     * The entry was recorded.
+     */
+    static final int SUCCESS = 0;
+
+    /**
+     * The stripe is full and should be drained.
+     */
+    static final int FULL = 1;
+
+    /**
+     * The stripe is contended, the entry was dropped.
+     */
+    static final int FAILED = 2;
+
+    private static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private final Stripe<E>[] stripes;
+    private final int mask;
+
+    ReadBuffer() {
+        int count = ceilingPowerOfTwo(4 * Runtime.getRuntime().availableProcessors());
+
+        // A generic array cannot be created, the raw one only ever holds Stripe<E>
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Stripe<E>[] stripes = new Stripe[count];
+        this.stripes = stripes;
+        this.mask = count - 1;
+
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Records the entry in the stripe of the calling thread.
+     *
+     * @return {@link #SUCCESS}, {@link #FULL} or {@link #FAILED}
+     */
+    int offer(E e) {
+        return stripes[probe() & mask].offer(e);
+    }
+
+    /**
+     * Replays all recorded entries. Must be called by a single thread at a time.
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+
+    private static final class Stripe<E> {
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        int offer(E e) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+
+            if (tail - head >= STRIPE_SIZE) {
+                return FULL;
+            }
+
+            if (!writeCounter.compareAndSet(tail, tail + 1)) {
+                return FAILED;
+            }
+
+            buffer.lazySet((int) (tail & STRIPE_MASK), e);
+            return (tail + 1 - head >= STRIPE_SIZE) ? FULL : SUCCESS;
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+
+            for (; head < tail; head++) {
+                int index = (int) (head & STRIPE_MASK);
+                E e = buffer.get(index);
+
+                if (e == null) {
+                    // The writer claimed the slot but has not published it yet
+                    break;
+                }
+
+                buffer.lazySet(index, null);
+                consumer.accept(e);
+            }
+
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package by.touchme.commentservice.cache;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.PageDto;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Estimates the heap retained by a cache entry in bytes, assuming a 64-bit JVM with
+ * compressed references and compact strings. The estimate is dominated by the text of
+ * the comments; types it does not know are counted with a fixed size.
+ */
+public class RetainedSizeWeigher implements Weigher {
+
+    /**
+     * Cache node and hash map node of an entry.
+     */
+    private static final long ENTRY_OVERHEAD = 88;
+    private static final long OBJECT_HEADER = 12;
+    private static final long REFERENCE = 4;
+    private static final long STRING = 24;
+    private static final long ARRAY_HEADER = 16;
+    private static final long BOXED = 16;
+    private static final long DATE = 24;
+
+    /**
+     * Page metadata: four longs.
+     */
+    private static final long PAGE_METADATA = 48;
+    private static final long UNKNOWN = 64;
+
+    @Override
+    public long weigh(Object key, Object value) {
+        return ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+    }
+
+    private long sizeOf(Object object) {
+        if (object == null) {
+            return 0;
+        }
+
+        if (object instanceof CharSequence text) {
+            // Latin-1 strings take one byte per char, comments are mostly Latin-1
+            return STRING + align(ARRAY_HEADER + text.length());
+        }
+
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+            return BOXED;
+        }
+
+        if (object instanceof Date) {
+            return DATE;
+        }
+
+        if (object instanceof CommentDto comment) {
+            return align(OBJECT_HEADER + 5 * REFERENCE)
+                    + sizeOf(comment.getId())
+                    + sizeOf(comment.getNewsId())
+                    + sizeOf(comment.getUsername())
+                    + sizeOf(comment.getText())
+                    + sizeOf(comment.getTime());
+        }
+
+        if (object instanceof PageDto<?> page) {
+            return align(OBJECT_HEADER + 2 * REFERENCE)
+                    + sizeOf(page.getContent())
+                    + ((page.getMetadata() != null) ? PAGE_METADATA : 0);
+        }
+
+        if (object instanceof Collection<?> collection) {
+            long size = align(OBJECT_HEADER + 2 * REFERENCE) + align(ARRAY_HEADER + collection.size() * REFERENCE);
+
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+
+            return size;
+        }
+
+        return UNKNOWN;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,60 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Loads each missing key of a cache only once: concurrent callers for the same key
+ * wait for the running loader and share its value or its failure.
+ */
+final class SingleFlightLoader {
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final CacheStats stats;
+
+    SingleFlightLoader(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @param lookup reads the key again once this caller is the loader
+     * @param store  caches the loaded value
+     */
+    @SuppressWarnings("unchecked")
+    <T> T load(Object key, Callable<T> valueLoader,
+               Function<Object, Cache.ValueWrapper> lookup, BiConsumer<Object, Object> store) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(key, future);
+
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException ex) {
+                throw new Cache.ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+
+        try {
+            // The previous loader may have finished between the lookup and the registration
+            Cache.ValueWrapper wrapper = lookup.apply(key);
+            T value = (wrapper != null) ? (T) wrapper.get() : stats.load(valueLoader);
+
+            if (wrapper == null) {
+                store.accept(key, value);
+            }
+
+            future.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+            throw new Cache.ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+}
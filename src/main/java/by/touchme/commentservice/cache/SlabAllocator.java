@@ -0,0 +1,202 @@
+package by.touchme.commentservice.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Allocates fixed size chunks from direct memory, in the manner of memcached.
+ * Memory is reserved in slabs of equal size, each slab is assigned to one size class
+ * on first use and cut into chunks of that class. Chunk sizes grow by 25% per class,
+ * so a record wastes at most a quarter of its chunk. Freed chunks are pushed on the
+ * free list of their class and reused before a new slab is taken.
+ * <p>
+ * A chunk is addressed by a {@code long}: the slab number in the upper and the offset
+ * in the lower 32 bits. Slab numbers start at 1, so an address is never 0.
+ * Not thread safe, guarded by the lock of the owning cache.
+ */
+final class SlabAllocator {
+
+    static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final int slabSize;
+    private final int[] chunkSizes;
+    private final ByteBuffer[] slabs;
+    private final byte[] slabClasses;
+    private final LongStack[] freeChunks;
+    private final int[] currentSlab;
+    private final int[] currentOffset;
+    private final LongStack unassignedSlabs;
+    private int slabCount;
+
+    /**
+     * @param maxBytes upper bound of the reserved direct memory
+     * @param slabSize size of a slab, also the largest chunk
+     */
+    SlabAllocator(long maxBytes, int slabSize) {
+        if (slabSize < MIN_CHUNK_SIZE || maxBytes < slabSize) {
+            throw new IllegalArgumentException(
+                    "Off-heap size " + maxBytes + " must hold at least one slab of " + slabSize + " bytes");
+        }
+
+        this.slabSize = slabSize;
+        this.chunkSizes = chunkSizes(slabSize);
+        this.slabs = new ByteBuffer[(int) Math.min(maxBytes / slabSize, Integer.MAX_VALUE - 1) + 1];
+        this.slabClasses = new byte[slabs.length];
+        this.freeChunks = new LongStack[chunkSizes.length];
+        this.currentSlab = new int[chunkSizes.length];
+        this.currentOffset = new int[chunkSizes.length];
+        this.unassignedSlabs = new LongStack();
+
+        for (int i = 0; i < chunkSizes.length; i++) {
+            freeChunks[i] = new LongStack();
+        }
+    }
+
+    /**
+     * @return the size class of a record, -1 if it does not fit into a slab
+     */
+    int sizeClass(int size) {
+        if (size > slabSize) {
+            return -1;
+        }
+
+        int index = Arrays.binarySearch(chunkSizes, size);
+        return (index >= 0) ? index : -index - 1;
+    }
+
+    /**
+     * @return the size class of an allocated chunk
+     */
+    int classOf(long address) {
+        return slabClasses[(int) (address >>> 32)];
+    }
+
+    /**
+     * @return the address of a free chunk of the class, 0 if the memory is exhausted
+     */
+    long allocate(int sizeClass) {
+        LongStack free = freeChunks[sizeClass];
+
+        if (!free.isEmpty()) {
+            return free.pop();
+        }
+
+        int chunkSize = chunkSizes[sizeClass];
+
+        if (currentSlab[sizeClass] == 0 || currentOffset[sizeClass] + chunkSize > slabSize) {
+            int slab = assignSlab(sizeClass);
+
+            if (slab == 0) {
+                return 0;
+            }
+
+            currentSlab[sizeClass] = slab;
+            currentOffset[sizeClass] = 0;
+        }
+
+        long address = ((long) currentSlab[sizeClass] << 32) | currentOffset[sizeClass];
+        currentOffset[sizeClass] += chunkSize;
+        return address;
+    }
+
+    void free(long address) {
+        freeChunks[classOf(address)].push(address);
+    }
+
+    /**
+     * @return the slab holding the chunk, positioned by {@link #offset(long)}
+     */
+    ByteBuffer slab(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Frees all chunks. The slabs are kept and assigned to a class again on demand.
+     */
+    void clear() {
+        unassignedSlabs.clear();
+
+        for (int slab = 1; slab <= slabCount; slab++) {
+            unassignedSlabs.push(slab);
+        }
+
+        for (int i = 0; i < chunkSizes.length; i++) {
+            freeChunks[i].clear();
+            currentSlab[i] = 0;
+            currentOffset[i] = 0;
+        }
+    }
+
+    /**
+     * @return direct memory reserved so far
+     */
+    long reservedBytes() {
+        return (long) slabCount * slabSize;
+    }
+
+    private int assignSlab(int sizeClass) {
+        int slab;
+
+        if (!unassignedSlabs.isEmpty()) {
+            slab = (int) unassignedSlabs.pop();
+        } else if (slabCount + 1 < slabs.length) {
+            slab = ++slabCount;
+            slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+        } else {
+            return 0;
+        }
+
+        slabClasses[slab] = (byte) sizeClass;
+        return slab;
+    }
+
+    private static int[] chunkSizes(int slabSize) {
+        int[] sizes = new int[Byte.MAX_VALUE];
+        int count = 0;
+        int size = MIN_CHUNK_SIZE;
+
+        while (size < slabSize) {
+            sizes[count++] = size;
+            // Keep chunks 8 byte aligned
+            size = (int) Math.min(((long) (size * GROWTH_FACTOR) + 7) & ~7L, slabSize);
+        }
+
+        sizes[count++] = slabSize;
+        return Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * Growable stack of primitive longs.
+     */
+    private static final class LongStack {
+        private long[] elements = new long[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+
+            elements[size++] = element;
+        }
+
+        long pop() {
+            return elements[--size];
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Cache that records {@link CacheStats}.
+ */
+public interface StatisticsCache extends Cache {
+
+    CacheStats stats();
+
+    /**
+     * @return number of entries, {@code null} if the cache cannot tell
+     */
+    Long estimatedSize();
+}
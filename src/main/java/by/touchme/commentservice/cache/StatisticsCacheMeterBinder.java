@@ -0,0 +1,107 @@
+package by.touchme.commentservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link CacheStats} of a cache: the common {@code cache.*} meters of
+ * Micrometer, the load counts and a histogram of the load times, and the gauges
+ * specific to the cache type.
+ */
+public class StatisticsCacheMeterBinder extends CacheMeterBinder<StatisticsCache> {
+    private final CacheStats stats;
+
+    public StatisticsCacheMeterBinder(StatisticsCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.stats = cache.stats();
+    }
+
+    @Override
+    protected Long size() {
+        StatisticsCache cache = getCache();
+        return (cache != null) ? cache.estimatedSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        return stats.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return stats.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return stats.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return stats.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.load", stats, CacheStats::loadSuccessCount)
+                .tags(getTagsWithCacheName()).tag("result", "success")
+                .description("The number of times cache lookup methods have successfully loaded a new value")
+                .register(registry);
+
+        FunctionCounter.builder("cache.load", stats, CacheStats::loadFailureCount)
+                .tags(getTagsWithCacheName()).tag("result", "failure")
+                .description("The number of times cache lookup methods failed to load a new value")
+                .register(registry);
+
+        FunctionCounter.builder("cache.puts.rejected", stats, CacheStats::rejectionCount)
+                .tags(getTagsWithCacheName())
+                .description("The number of puts that were not cached because the entry did not fit")
+                .register(registry);
+
+        Timer loadDuration = Timer.builder("cache.load.duration")
+                .tags(getTagsWithCacheName())
+                .description("The time the successful loads of new values took")
+                .publishPercentileHistogram()
+                .register(registry);
+        stats.setLoadTimeRecorder(nanos -> loadDuration.record(nanos, TimeUnit.NANOSECONDS));
+
+        StatisticsCache cache = getCache();
+
+        if (cache instanceof AbstractLocalCache<?> localCache) {
+            Gauge.builder("cache.weighted.size", localCache, AbstractLocalCache::weightedSize)
+                    .tags(getTagsWithCacheName())
+                    .description("Estimated heap size of the cache entries")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        if (cache instanceof OffHeapCache offHeapCache) {
+            Gauge.builder("cache.off.heap.reserved", offHeapCache, OffHeapCache::reservedBytes)
+                    .tags(getTagsWithCacheName())
+                    .description("Direct memory reserved by the cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        if (cache instanceof TwoLevelCache twoLevelCache && twoLevelCache.getShared() instanceof StatisticsCache shared) {
+            CacheStats sharedStats = shared.stats();
+
+            FunctionCounter.builder("cache.shared.gets", sharedStats, CacheStats::hitCount)
+                    .tags(getTagsWithCacheName()).tag("result", "hit")
+                    .description("The number of times the shared tier returned a cached value")
+                    .register(registry);
+
+            FunctionCounter.builder("cache.shared.gets", sharedStats, CacheStats::missCount)
+                    .tags(getTagsWithCacheName()).tag("result", "miss")
+                    .description("The number of times the shared tier had no cached value")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package by.touchme.commentservice.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Lets actuator bind the metrics of every {@link StatisticsCache} on startup.
+ */
+public class StatisticsCacheMeterBinderProvider implements CacheMeterBinderProvider<StatisticsCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(StatisticsCache cache, Iterable<Tag> tags) {
+        return new StatisticsCacheMeterBinder(cache, tags);
+    }
+}
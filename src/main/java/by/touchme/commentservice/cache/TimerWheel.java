@@ -0,0 +1,152 @@
+package by.touchme.commentservice.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel that tracks when cache entries expire.
+ * Each level is a ring of buckets covering a coarser time span (about a second,
+ * a minute, an hour, a day and a week), a bucket is a doubly linked list of nodes.
+ * Scheduling and descheduling are O(1). Advancing the clock only visits the buckets
+ * whose time span passed; nodes in a coarse bucket are handed back to the owner,
+ * which either expires them or schedules them again into a finer level.
+ * Not thread safe, guarded by the eviction lock of the owning cache.
+ */
+final class TimerWheel<N extends AbstractLocalCache.Node> {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+    };
+    private static final long[] SHIFT = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+
+    private final AbstractLocalCache.Node[][] wheel;
+    private long nanos;
+
+    TimerWheel(long nanos) {
+        this.nanos = nanos;
+        this.wheel = new AbstractLocalCache.Node[BUCKETS.length][];
+
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new AbstractLocalCache.Node[BUCKETS[i]];
+
+            for (int j = 0; j < wheel[i].length; j++) {
+                AbstractLocalCache.Node sentinel = new AbstractLocalCache.Node(null, null);
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Adds the node to the bucket of the given expiration time.
+     */
+    void schedule(N node, long expirationTime) {
+        AbstractLocalCache.Node sentinel = findBucket(expirationTime);
+        node.timerPrev = sentinel.timerPrev;
+        node.timerNext = sentinel;
+        sentinel.timerPrev.timerNext = node;
+        sentinel.timerPrev = node;
+    }
+
+    /**
+     * Removes the node from its bucket, if it is scheduled.
+     */
+    void deschedule(N node) {
+        if (node.timerNext != null) {
+            node.timerNext.timerPrev = node.timerPrev;
+            node.timerPrev.timerNext = node.timerNext;
+            node.timerNext = null;
+            node.timerPrev = null;
+        }
+    }
+
+    /**
+     * Moves the clock forward and hands every node of the passed buckets to the consumer.
+     * The nodes are descheduled at that point, the consumer expires them or schedules them again.
+     */
+    void advance(long currentTimeNanos, Consumer<N> expired) {
+        long previousTimeNanos = nanos;
+        nanos = currentTimeNanos;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTimeNanos >>> SHIFT[i];
+            long currentTicks = currentTimeNanos >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+
+            if (delta <= 0) {
+                break;
+            }
+
+            expire(i, previousTicks, delta, expired);
+        }
+    }
+
+    /**
+     * Drops all scheduled nodes.
+     */
+    void clear() {
+        for (AbstractLocalCache.Node[] buckets : wheel) {
+            for (AbstractLocalCache.Node sentinel : buckets) {
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expire(int index, long previousTicks, long delta, Consumer<N> expired) {
+        AbstractLocalCache.Node[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+
+        for (int i = start; i < start + steps; i++) {
+            AbstractLocalCache.Node sentinel = buckets[i & mask];
+            AbstractLocalCache.Node node = sentinel.timerNext;
+
+            // Detach the whole bucket first, nodes may be scheduled into it again
+            sentinel.timerPrev = sentinel;
+            sentinel.timerNext = sentinel;
+
+            while (node != sentinel) {
+                AbstractLocalCache.Node next = node.timerNext;
+                node.timerPrev = null;
+                node.timerNext = null;
+                expired.accept((N) node);
+                node = next;
+            }
+        }
+    }
+
+    private AbstractLocalCache.Node findBucket(long time) {
+        long duration = time - nanos;
+        int length = wheel.length - 1;
+
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+
+        return wheel[length][0];
+    }
+
+    private static long ceilingPowerOfTwo(long x) {
+        return 1L << -Long.numberOfLeadingZeros(x - 1);
+    }
+}
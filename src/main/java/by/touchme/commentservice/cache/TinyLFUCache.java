@@ -0,0 +1,211 @@
+package by.touchme.commentservice.cache;
+
+import java.time.Duration;
+
+/**
+ * Window TinyLFU cache.
+ * New entries go to a small LRU window (1% of the capacity) that absorbs bursts.
+ * An entry leaving the window is only admitted into the main region if the
+ * {@link FrequencySketch} has seen it more often than the entry the main region
+ * would evict, so one-off keys cannot flush popular ones. The main region is a
+ * segmented LRU: entries start on probation and are promoted to the protected
+ * segment (80% of the main region) on their next hit.
+ * <p>
+ * With a maximum weight the segments are still sized by the expected number of
+ * entries, only the total is bounded by weight.
+ */
+public class TinyLFUCache extends AbstractLocalCache<TinyLFUCache.Entry> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final Entry window;
+    private final Entry probation;
+    private final Entry protectedSegment;
+    private final FrequencySketch sketch;
+    private final int maxWindow;
+    private final int maxProtected;
+    private int windowSize;
+    private int protectedSize;
+
+    public TinyLFUCache(String cacheName, int capacity) {
+        this(cacheName, capacity, null, null);
+    }
+
+    /**
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public TinyLFUCache(String cacheName, int capacity, Duration expireAfterWrite, Duration expireAfterAccess) {
+        this(cacheName, capacity, 0, null, expireAfterWrite, expireAfterAccess);
+    }
+
+    /**
+     * @param capacity          maximum number of entries, only the expected number if a maximum weight is set
+     * @param maxWeight         maximum total weight of the entries, 0 bounds the cache by capacity
+     * @param weigher           weight of an entry, required with a maximum weight
+     * @param expireAfterWrite  time to live of an entry, {@code null} disables it
+     * @param expireAfterAccess time to idle of an entry, {@code null} disables it
+     */
+    public TinyLFUCache(String cacheName, int capacity, long maxWeight, Weigher weigher,
+                        Duration expireAfterWrite, Duration expireAfterAccess) {
+        super(cacheName, capacity, maxWeight, weigher, expireAfterWrite, expireAfterAccess, null);
+        this.window = sentinel();
+        this.probation = sentinel();
+        this.protectedSegment = sentinel();
+        this.sketch = new FrequencySketch(capacity);
+        this.maxWindow = Math.max(1, capacity / 100);
+        this.maxProtected = (int) (0.8 * (capacity - maxWindow));
+    }
+
+    @Override
+    protected Entry createNode(Object key, Object value) {
+        return new Entry(key, value);
+    }
+
+    @Override
+    protected void onInsert(Entry node) {
+        sketch.increment(node.key);
+        linkLast(window, node, WINDOW);
+        windowSize++;
+
+        Entry candidate = null;
+
+        if (windowSize > maxWindow) {
+            candidate = window.next;
+            unlink(candidate);
+            windowSize--;
+            linkLast(probation, candidate, PROBATION);
+        }
+
+        evictFromMain(candidate);
+    }
+
+    @Override
+    protected void evictOverCapacity() {
+        evictFromMain(null);
+    }
+
+    @Override
+    protected void onAccess(Entry node) {
+        sketch.increment(node.key);
+
+        switch (node.queue) {
+            case WINDOW -> moveToLast(window, node);
+            case PROBATION -> {
+                unlink(node);
+                linkLast(protectedSegment, node, PROTECTED);
+                protectedSize++;
+
+                if (protectedSize > maxProtected) {
+                    Entry demoted = protectedSegment.next;
+                    unlink(demoted);
+                    protectedSize--;
+                    linkLast(probation, demoted, PROBATION);
+                }
+            }
+            default -> moveToLast(protectedSegment, node);
+        }
+    }
+
+    @Override
+    protected void onRemove(Entry node) {
+        if (node.queue == WINDOW) {
+            windowSize--;
+        } else if (node.queue == PROTECTED) {
+            protectedSize--;
+        }
+
+        unlink(node);
+    }
+
+    @Override
+    protected void onClear() {
+        for (Entry head : new Entry[]{window, probation, protectedSegment}) {
+            head.prev = head;
+            head.next = head;
+        }
+
+        windowSize = 0;
+        protectedSize = 0;
+    }
+
+    /**
+     * Evicts until the cache fits its capacity. The candidate that just left the window
+     * competes with the probation victim, the less frequent one of the two is evicted.
+     */
+    private void evictFromMain(Entry candidate) {
+        while (isOverCapacity()) {
+            Entry victim = firstOf(probation, protectedSegment, window);
+
+            if (victim != null && victim == candidate) {
+                // The candidate is the only entry on probation, compete with the next segment
+                Entry next = firstOf(protectedSegment, window);
+                victim = (next != null) ? next : candidate;
+            }
+
+            if (victim == null) {
+                return;
+            }
+
+            if (candidate == null || candidate == victim) {
+                evictNode(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+                candidate = null;
+            }
+        }
+    }
+
+    private static Entry firstOf(Entry... heads) {
+        for (Entry head : heads) {
+            if (head.next != head) {
+                return head.next;
+            }
+        }
+
+        return null;
+    }
+
+    private static Entry sentinel() {
+        Entry head = new Entry(null, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private static void linkLast(Entry head, Entry node, int queue) {
+        node.queue = queue;
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static void moveToLast(Entry head, Entry node) {
+        if (head.prev != node) {
+            unlink(node);
+            linkLast(head, node, node.queue);
+        }
+    }
+
+    private static void unlink(Entry node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    protected static final class Entry extends AbstractLocalCache.Node {
+        private int queue;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(Object key, Object value) {
+            super(key, value);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Near cache: a bounded in-process tier (L1) in front of a shared cache (L2).
+ * Hits in L1 cost neither a network round-trip nor a deserialization, misses fall
+ * through to L2 and fill L1. Every write goes to both tiers and is broadcast, so the
+ * other nodes drop their now stale L1 copy.
+ * <p>
+ * L1 keys are the string form of the cache key, which is also what the invalidation
+ * messages carry. The statistics are the ones of L1, L2 may report its own.
+ */
+public class TwoLevelCache implements StatisticsCache {
+    private final String origin;
+    private final StatisticsCache local;
+    private final Cache shared;
+    private final CacheInvalidationPublisher publisher;
+
+    public TwoLevelCache(String origin, StatisticsCache local, Cache shared, CacheInvalidationPublisher publisher) {
+        this.origin = origin;
+        this.local = local;
+        this.shared = shared;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return shared.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.get(localKey);
+
+        if (wrapper != null) {
+            return wrapper;
+        }
+
+        wrapper = shared.get(key);
+
+        if (wrapper != null) {
+            local.put(localKey, wrapper.get());
+        }
+
+        return wrapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = (wrapper != null) ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        try {
+            return local.get(localKey(key), () -> shared.get(key, valueLoader));
+        } catch (ValueRetrievalException ex) {
+            // Do not wrap the failure of the shared tier twice
+            if (ex.getCause() instanceof ValueRetrievalException cause) {
+                throw cause;
+            }
+
+            throw ex;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        shared.put(key, value);
+        local.put(localKey(key), value);
+        publisher.publish(new CacheInvalidation(origin, getName(), localKey(key)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        shared.evict(key);
+        local.evict(localKey(key));
+        publisher.publish(new CacheInvalidation(origin, getName(), localKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        shared.clear();
+        local.clear();
+        publisher.publish(new CacheInvalidation(origin, getName(), null));
+    }
+
+    @Override
+    public CacheStats stats() {
+        return local.stats();
+    }
+
+    @Override
+    public Long estimatedSize() {
+        return local.estimatedSize();
+    }
+
+    /**
+     * @return the shared tier (L2)
+     */
+    public Cache getShared() {
+        return shared;
+    }
+
+    /**
+     * Applies an invalidation broadcast by another node to the local tier.
+     */
+    public void invalidateLocal(CacheInvalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+
+        if (invalidation.getKey() == null) {
+            local.clear();
+        } else {
+            local.evict(invalidation.getKey());
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
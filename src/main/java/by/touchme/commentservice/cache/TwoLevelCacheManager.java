@@ -0,0 +1,69 @@
+package by.touchme.commentservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Creates a {@link TwoLevelCache} for every cache of the shared cache manager.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+    private final String origin;
+    private final CacheManager shared;
+    private final Function<String, ? extends StatisticsCache> localFactory;
+    private final CacheInvalidationPublisher publisher;
+    private final ConcurrentMap<String, TwoLevelCache> caches;
+
+    /**
+     * @param shared       cache manager of the shared tier
+     * @param localFactory creates the local tier for a cache name
+     * @param publisher    broadcasts the invalidations to the other nodes
+     */
+    public TwoLevelCacheManager(CacheManager shared, Function<String, ? extends StatisticsCache> localFactory,
+                                CacheInvalidationPublisher publisher) {
+        this.origin = UUID.randomUUID().toString();
+        this.shared = shared;
+        this.localFactory = localFactory;
+        this.publisher = publisher;
+        this.caches = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache sharedCache = shared.getCache(name);
+
+        if (sharedCache == null) {
+            return null;
+        }
+
+        return caches.computeIfAbsent(name,
+                key -> new TwoLevelCache(origin, localFactory.apply(key), sharedCache, publisher));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return shared.getCacheNames();
+    }
+
+    /**
+     * Applies an invalidation broadcast by any node, the own ones are ignored.
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        TwoLevelCache cache = caches.get(invalidation.getCacheName());
+
+        if (cache != null) {
+            cache.invalidateLocal(invalidation);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package by.touchme.commentservice.cache;
+
+/**
+ * Calculates the weight of a cache entry, the caches are bounded by the sum of the weights.
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * @return the non-negative weight of the entry
+     */
+    long weigh(Object key, Object value);
+}
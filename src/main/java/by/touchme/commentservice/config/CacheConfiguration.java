@@ -1,34 +1,65 @@
 package by.touchme.commentservice.config;
 
 
+import by.touchme.commentservice.cache.CacheGenerations;
+import by.touchme.commentservice.cache.CacheInvalidation;
 import by.touchme.commentservice.cache.LFUCache;
 import by.touchme.commentservice.cache.LRUCache;
+import by.touchme.commentservice.cache.MeteredCacheManager;
+import by.touchme.commentservice.cache.OffHeapCache;
+import by.touchme.commentservice.cache.RetainedSizeWeigher;
+import by.touchme.commentservice.cache.StatisticsCache;
+import by.touchme.commentservice.cache.StatisticsCacheMeterBinderProvider;
+import by.touchme.commentservice.cache.TinyLFUCache;
+import by.touchme.commentservice.cache.TwoLevelCacheManager;
+import by.touchme.commentservice.cache.Weigher;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.io.Serializable;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Set;
 
 
 @EnableConfigurationProperties(CacheProperties.class)
-@EnableCaching
+// Around the transactions: hits open none, and results are put after the commit
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @Configuration
 public class CacheConfiguration {
 
+    /**
+     * Redis pub/sub channel of the near cache invalidations.
+     */
+    private static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
+    private static final String COMMENTS_CACHE = "comments";
+
+    private static final String NEWS_COMMENT_PAGES_CACHE = "newsCommentPages";
+
+    private static final String NEWS_GENERATIONS_CACHE = "newsGenerations";
+
+    private static final Set<String> CACHE_NAMES = Set.of(COMMENTS_CACHE, NEWS_COMMENT_PAGES_CACHE, NEWS_GENERATIONS_CACHE);
+
     private final CacheProperties properties;
 
     CacheConfiguration(CacheProperties properties) {
@@ -45,31 +76,31 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory factory) {
+    public CacheManager cacheManager(RedisConnectionFactory factory,
+                                     RedisTemplate<String, Serializable> redisCacheTemplate) {
         CacheTypes cacheTypes = properties.getType();
 
         switch (cacheTypes) {
-            case LRU, LFU -> {
+            case LRU, LFU, TINYLFU, OFFHEAP -> {
                 SimpleCacheManager cacheManager = new SimpleCacheManager();
                 
                 cacheManager.setCaches(
-                        Collections.singletonList(
-                                createCache()
-                        )
+                        CACHE_NAMES.stream()
+                                .map(name -> createCache(name, cacheTypes))
+                                .toList()
                 );
 
                 return cacheManager;
             }
             case REDIS -> {
-                RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
-
-                RedisCacheConfiguration redisCacheConfiguration = config
-                        .serializeKeysWith(
-                                RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                        .serializeValuesWith(RedisSerializationContext.SerializationPair
-                                .fromSerializer(new GenericJackson2JsonRedisSerializer()));
-
-                return RedisCacheManager.builder(factory).cacheDefaults(redisCacheConfiguration).build();
+                return new MeteredCacheManager(redisCacheManager(factory));
+            }
+            case NEAR -> {
+                return new TwoLevelCacheManager(
+                        new MeteredCacheManager(redisCacheManager(factory)),
+                        name -> createCache(name, CacheTypes.TINYLFU),
+                        invalidation -> redisCacheTemplate.convertAndSend(INVALIDATION_CHANNEL, invalidation)
+                );
             }
             default -> {
                 return new NoOpCacheManager();
@@ -77,13 +108,96 @@ public class CacheConfiguration {
         }
     }
 
-    private Cache createCache() {
+    /**
+     * Generations of the news, a change of a comment moves its news to a new generation.
+     */
+    @Bean
+    public CacheGenerations newsGenerations(CacheManager cacheManager) {
+        return new CacheGenerations(cacheManager.getCache(NEWS_GENERATIONS_CACHE));
+    }
+
+    /**
+     * Key of a news comment page: the news, its generation and the page request.
+     */
+    @Bean
+    public KeyGenerator newsCommentPageKeyGenerator(CacheGenerations newsGenerations) {
+        return (target, method, params) -> {
+            Long newsId = (Long) params[0];
+            Pageable pageable = (Pageable) params[1];
+
+            String page = pageable.isPaged()
+                    ? pageable.getPageNumber() + ":" + pageable.getPageSize()
+                    : "unpaged";
+
+            return newsId + ":" + newsGenerations.current(newsId) + ":" + page + ":" + pageable.getSort();
+        };
+    }
+
+    /**
+     * Publishes hits, misses, puts, evictions, load times and size of the caches.
+     */
+    @Bean
+    public CacheMeterBinderProvider<StatisticsCache> statisticsCacheMeterBinderProvider() {
+        return new StatisticsCacheMeterBinderProvider();
+    }
+
+    /**
+     * Listens to the invalidations of the other nodes and drops their keys from the local tier.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.type", havingValue = "near")
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory factory,
+                                                                   CacheManager cacheManager) {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            container.addMessageListener(
+                    (message, pattern) -> twoLevelCacheManager.onInvalidation(
+                            (CacheInvalidation) serializer.deserialize(message.getBody())),
+                    new ChannelTopic(INVALIDATION_CHANNEL)
+            );
+        }
+
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory factory) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
+
+        RedisCacheConfiguration redisCacheConfiguration = config
+                .serializeKeysWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new GenericJackson2JsonRedisSerializer()));
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(factory)
+                .cacheDefaults(redisCacheConfiguration)
+                .initialCacheNames(CACHE_NAMES)
+                .build();
+
+        // Not a bean, so the initial caches are created here
+        cacheManager.initializeCaches();
+
+        return cacheManager;
+    }
+
+    private StatisticsCache createCache(String name, CacheTypes cacheTypes) {
         int capacity = this.properties.getCapacity();
-        CacheTypes cacheTypes = this.properties.getType();
+        Duration expireAfterWrite = this.properties.getExpireAfterWrite(name);
+        Duration expireAfterAccess = this.properties.getExpireAfterAccess(name);
+        long maxBytes = (this.properties.getMaxBytes() != null) ? this.properties.getMaxBytes().toBytes() : 0;
+        Weigher weigher = (maxBytes > 0) ? new RetainedSizeWeigher() : null;
 
         return switch (cacheTypes) {
-            case LRU -> new LRUCache("comments", capacity);
-            case LFU -> new LFUCache("comments", capacity);
+            case LRU -> new LRUCache(name, capacity, maxBytes, weigher, expireAfterWrite, expireAfterAccess);
+            case LFU -> new LFUCache(name, capacity, maxBytes, weigher, this.properties.getAgingPeriod(),
+                    expireAfterWrite, expireAfterAccess);
+            case TINYLFU -> new TinyLFUCache(name, capacity, maxBytes, weigher, expireAfterWrite, expireAfterAccess);
+            case OFFHEAP -> new OffHeapCache(name, capacity, this.properties.getOffHeapSize().toBytes(),
+                    new GenericJackson2JsonRedisSerializer());
             default -> null;
         };
     }
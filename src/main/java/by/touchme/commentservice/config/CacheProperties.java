@@ -3,6 +3,11 @@ package by.touchme.commentservice.config;
 import lombok.Getter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
 
 @ConfigurationProperties(prefix = "cache")
 @ConfigurationPropertiesScan
@@ -12,8 +17,68 @@ public final class CacheProperties {
     private final CacheTypes type;
     private final int capacity;
 
-    public CacheProperties(CacheTypes type, int capacity) {
+    /**
+     * Number of accesses after which the lfu cache halves all frequencies, 0 disables aging.
+     */
+    private final long agingPeriod;
+
+    /**
+     * Time to live of the local cache entries, disabled if not set.
+     */
+    private final Duration expireAfterWrite;
+
+    /**
+     * Time to idle of the local cache entries, disabled if not set.
+     */
+    private final Duration expireAfterAccess;
+
+    /**
+     * Maximum estimated heap size of each local cache, bounds the caches by bytes instead of capacity if set.
+     */
+    private final DataSize maxBytes;
+
+    /**
+     * Direct memory available to each offheap cache.
+     */
+    private final DataSize offHeapSize;
+
+    /**
+     * Settings of single caches by cache name, overriding the defaults above.
+     */
+    private final Map<String, Spec> caches;
+
+    public CacheProperties(CacheTypes type, int capacity, long agingPeriod,
+                           Duration expireAfterWrite, Duration expireAfterAccess, DataSize maxBytes,
+                           @DefaultValue("64MB") DataSize offHeapSize, Map<String, Spec> caches) {
         this.type = type;
         this.capacity = capacity;
+        this.agingPeriod = agingPeriod;
+        this.expireAfterWrite = expireAfterWrite;
+        this.expireAfterAccess = expireAfterAccess;
+        this.maxBytes = maxBytes;
+        this.offHeapSize = offHeapSize;
+        this.caches = (caches != null) ? caches : Map.of();
+    }
+
+    public Duration getExpireAfterWrite(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return (spec != null && spec.getExpireAfterWrite() != null) ? spec.getExpireAfterWrite() : expireAfterWrite;
+    }
+
+    public Duration getExpireAfterAccess(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return (spec != null && spec.getExpireAfterAccess() != null) ? spec.getExpireAfterAccess() : expireAfterAccess;
+    }
+
+    @Getter
+    public static final class Spec {
+
+        private final Duration expireAfterWrite;
+        private final Duration expireAfterAccess;
+
+        public Spec(Duration expireAfterWrite, Duration expireAfterAccess) {
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+        }
     }
 }
@@ -8,5 +8,8 @@ public enum CacheTypes {
     NONE,
     LFU,
     LRU,
+    TINYLFU,
+    OFFHEAP,
     REDIS,
+    NEAR,
 }
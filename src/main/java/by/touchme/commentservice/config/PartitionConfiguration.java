@@ -0,0 +1,30 @@
+package by.touchme.commentservice.config;
+
+import by.touchme.commentservice.partition.CommentPartitionMaintenance;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/**
+ * Maintenance of the monthly partitions of the comments, only PostgreSQL partitions the table.
+ */
+@EnableConfigurationProperties(PartitionProperties.class)
+@EnableScheduling
+@ConditionalOnProperty(name = "partitions.enabled", havingValue = "true")
+@Configuration
+public class PartitionConfiguration {
+
+    @Bean
+    public CommentPartitionMaintenance commentPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                                                   CacheManager cacheManager,
+                                                                   PartitionProperties properties) {
+        return new CommentPartitionMaintenance(jdbcTemplate, cacheManager, Clock.systemDefaultZone(),
+                properties.getMonthsAhead(), properties.getRetentionMonths());
+    }
+}
@@ -0,0 +1,25 @@
+package by.touchme.commentservice.config;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "partitions")
+@Getter
+public final class PartitionProperties {
+
+    /**
+     * Months after the current one that get their partition in advance.
+     */
+    private final int monthsAhead;
+
+    /**
+     * Full months kept before the current one, the partitions of older months are dropped. Keeps all if not set.
+     */
+    private final Integer retentionMonths;
+
+    public PartitionProperties(@DefaultValue("3") int monthsAhead, Integer retentionMonths) {
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+}
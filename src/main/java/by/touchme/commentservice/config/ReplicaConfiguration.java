@@ -0,0 +1,105 @@
+package by.touchme.commentservice.config;
+
+import by.touchme.commentservice.datasource.Replica;
+import by.touchme.commentservice.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the data source of spring.datasource by a routing one as soon as a replica is configured.
+ */
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "replica", name = "nodes[0].url")
+@Configuration
+public class ReplicaConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    private final ReplicaProperties properties;
+
+    ReplicaConfiguration(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             Environment environment) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = createPool(binder, dataSourceProperties, "primary",
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+
+        List<Replica> replicas = new ArrayList<>();
+
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReplicaProperties.Node node = properties.getNodes().get(i);
+            String name = "replica-" + i;
+
+            HikariDataSource pool = createPool(binder, dataSourceProperties, name, node.getUrl(),
+                    (node.getUsername() != null) ? node.getUsername() : dataSourceProperties.determineUsername(),
+                    (node.getPassword() != null) ? node.getPassword() : dataSourceProperties.determinePassword());
+            pool.setReadOnly(true);
+
+            replicas.add(new Replica(name, pool));
+        }
+
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replicas,
+                properties.getSelection(), properties.getStickyWindow(), properties.getLagQuery(),
+                properties.getMaxLag());
+        dataSource.start(properties.getCheckInterval());
+
+        return dataSource;
+    }
+
+    /**
+     * Routed data source for everyone else, the connection is fetched once the transaction is known to be read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Gives the connection back after every transaction instead of holding it for the open session,
+     * so the next transaction of the same request is routed again.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource createPool(Binder binder, DataSourceProperties dataSourceProperties,
+                                               String name, String url, String username, String password) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+
+        // The pools of the replicas share the settings of the primary
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+
+        return dataSource;
+    }
+}
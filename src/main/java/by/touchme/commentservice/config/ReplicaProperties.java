@@ -0,0 +1,66 @@
+package by.touchme.commentservice.config;
+
+import by.touchme.commentservice.datasource.ReplicaSelection;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "replica")
+@Getter
+public final class ReplicaProperties {
+
+    private final ReplicaSelection selection;
+
+    /**
+     * Query run on a replica that returns its replication lag in seconds, only the connections are validated if not set.
+     */
+    private final String lagQuery;
+
+    /**
+     * Lag above which a replica is skipped until it catches up.
+     */
+    private final Duration maxLag;
+
+    /**
+     * Interval of the availability and lag checks.
+     */
+    private final Duration checkInterval;
+
+    /**
+     * How long the reads of a user go to the primary after they wrote.
+     */
+    private final Duration stickyWindow;
+
+    /**
+     * Connection settings of the replicas, the pool settings are the ones of the primary.
+     */
+    private final List<Node> nodes;
+
+    public ReplicaProperties(@DefaultValue("round-robin") ReplicaSelection selection, String lagQuery,
+                             @DefaultValue("5s") Duration maxLag, @DefaultValue("1s") Duration checkInterval,
+                             @DefaultValue("5s") Duration stickyWindow, List<Node> nodes) {
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.stickyWindow = stickyWindow;
+        this.nodes = (nodes != null) ? nodes : List.of();
+    }
+
+    @Getter
+    public static final class Node {
+
+        private final String url;
+        private final String username;
+        private final String password;
+
+        public Node(String url, String username, String password) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package by.touchme.commentservice.config;
+
+import by.touchme.commentservice.cache.LRUCache;
+import by.touchme.commentservice.cache.StatisticsCache;
+import by.touchme.commentservice.cache.StatisticsCacheMeterBinder;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SearchConfiguration {
+
+    private static final String SEARCH_PLAN_CACHE = "searchPlans";
+
+    /**
+     * Bounded cache of the search plans by shape of the criteria.
+     */
+    @Bean
+    public StatisticsCache searchPlanCache(@Value("${search.plan-cache-size:256}") int capacity) {
+        return new LRUCache(SEARCH_PLAN_CACHE, capacity);
+    }
+
+    /**
+     * Publishes the hit rate of the plan cache like the one of the data caches.
+     */
+    @Bean
+    public MeterBinder searchPlanCacheMetrics(StatisticsCache searchPlanCache) {
+        return new StatisticsCacheMeterBinder(searchPlanCache, Tags.of("cache.manager", "search"));
+    }
+}
@@ -1,13 +1,17 @@
 package by.touchme.commentservice.controller;
 
+import by.touchme.commentservice.dto.BulkResultDto;
 import by.touchme.commentservice.dto.CommentDto;
 import by.touchme.commentservice.dto.PageDto;
 import by.touchme.commentservice.service.CommentService;
 import by.touchme.commentservice.service.PermissionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.acls.domain.BasePermission;
@@ -21,6 +25,8 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * CRUD controller for comments.
@@ -32,6 +38,7 @@ public class CommentController {
 
     private final CommentService commentService;
     private final PermissionService permissionService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint for retrieving a comment by its Identifier.
@@ -75,6 +82,25 @@ public class CommentController {
         return new ResponseEntity<>(createdComment, HttpStatus.CREATED);
     }
 
+    /**
+     * Endpoint for importing many comments at once, as a JSON array or as newline delimited JSON.
+     * Requires authorization with user or admin role.
+     * The body is read as a stream and inserted in batches, the user gets the same rights
+     * on every created comment as on a single one.
+     *
+     * @param body CommentDto list without ids
+     * @return BulkResultDto with the outcome of every comment
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_USER')")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResultDto> createAll(InputStream body) throws IOException {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        try (MappingIterator<CommentDto> comments = objectMapper.readerFor(CommentDto.class).readValues(body)) {
+            return new ResponseEntity<>(commentService.createAll(comments, username), HttpStatus.OK);
+        }
+    }
+
     /**
      * Endpoint for update a comment by its Identifier.
      * Requires administrator role or write permission.
@@ -1,23 +1,38 @@
 package by.touchme.commentservice.controller;
 
 import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.CursorPageDto;
 import by.touchme.commentservice.dto.PageDto;
+import by.touchme.commentservice.dto.SliceDto;
 import by.touchme.commentservice.service.CommentService;
+import by.touchme.commentservice.service.NewsCommentCountService;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Controller for receiving news comments.
  */
 @RequestMapping("/v1/news")
 @RequiredArgsConstructor
 @RestController
+@Validated
 public class NewsCommentController {
 
+    /**
+     * News of one feed request, bounds the IN list and the lookups of a single query.
+     */
+    private static final int MAX_NEWS_IDS = 100;
+
     private final CommentService commentService;
+    private final NewsCommentCountService newsCommentCountService;
 
     /**
      * Endpoint for receiving paginated news comments.
@@ -31,4 +46,62 @@ public class NewsCommentController {
             @PathVariable(name = "id") Long newsId, Pageable pageable) {
         return new ResponseEntity<>(commentService.getPageByNewsId(newsId, pageable), HttpStatus.OK);
     }
+
+    /**
+     * Endpoint for receiving paginated news comments without the total number of comments.
+     * Only tells whether there is a next page, so no count query is needed.
+     *
+     * @param newsId News Identifier
+     * @param pageable Pagination options
+     * @return SliceDto with CommentDto
+     */
+    @GetMapping("/{id}/comment/slice")
+    public ResponseEntity<SliceDto<CommentDto>> getSlice(
+            @PathVariable(name = "id") Long newsId, Pageable pageable) {
+        return new ResponseEntity<>(commentService.getSliceByNewsId(newsId, pageable), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint for receiving the number of comments of several news at once, e.g. for a news feed.
+     *
+     * @param newsIds News Identifiers, at most 100
+     * @return Number of comments by news identifier
+     */
+    @GetMapping("/comment/count")
+    public ResponseEntity<Map<Long, Long>> getCounts(
+            @RequestParam(name = "id") @Size(max = MAX_NEWS_IDS) List<Long> newsIds) {
+        return new ResponseEntity<>(newsCommentCountService.getCounts(newsIds), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint for receiving the latest comments of several news at once, e.g. for a news feed.
+     * All news are read with a single query.
+     *
+     * @param newsIds News Identifiers, at most 100
+     * @param limit Number of comments per news, at most 20
+     * @return Latest comments, newest first, by news identifier
+     */
+    @GetMapping("/comment/latest")
+    public ResponseEntity<Map<Long, List<CommentDto>>> getLatest(
+            @RequestParam(name = "id") @Size(max = MAX_NEWS_IDS) List<Long> newsIds,
+            @RequestParam(name = "limit", defaultValue = "3") int limit) {
+        return new ResponseEntity<>(commentService.getLatestByNewsIds(newsIds, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint for receiving news comments page by page in the order they were written.
+     * Unlike offset pages, every page costs the same however deep the client scrolls.
+     *
+     * @param newsId News Identifier
+     * @param after Cursor returned with the previous page, empty for the first page
+     * @param limit Number of comments per page, at most 100
+     * @return CursorPageDto with CommentDto and the cursor of the next page
+     */
+    @GetMapping(value = "/{id}/comment", params = "after")
+    public ResponseEntity<CursorPageDto<CommentDto>> getCursorPage(
+            @PathVariable(name = "id") Long newsId,
+            @RequestParam(name = "after") String after,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(commentService.getPageByNewsId(newsId, after, limit), HttpStatus.OK);
+    }
 }
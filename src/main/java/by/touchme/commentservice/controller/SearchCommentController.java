@@ -3,13 +3,25 @@ package by.touchme.commentservice.controller;
 import by.touchme.commentservice.dto.CommentDto;
 import by.touchme.commentservice.dto.PageDto;
 import by.touchme.commentservice.dto.SearchDto;
+import by.touchme.commentservice.export.CommentExport;
+import by.touchme.commentservice.export.CommentWriter;
+import by.touchme.commentservice.export.CsvCommentWriter;
+import by.touchme.commentservice.export.NdjsonCommentWriter;
 import by.touchme.commentservice.service.CommentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Controller for search comments.
@@ -19,7 +31,15 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 public class SearchCommentController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * Formats of the export, the first one wins a tie.
+     */
+    private static final List<MediaType> EXPORT_TYPES = List.of(MediaType.APPLICATION_NDJSON, TEXT_CSV);
+
     private final CommentService commentService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint for retrieving comments using a paginated search expression.
@@ -32,4 +52,71 @@ public class SearchCommentController {
     public ResponseEntity<PageDto<CommentDto>> search(@Valid @RequestBody SearchDto searchDto, Pageable pageable) {
         return new ResponseEntity<>(commentService.getPageByCriteria(searchDto, pageable), HttpStatus.OK);
     }
+
+    /**
+     * Endpoint for exporting all comments matching a search expression, as newline delimited JSON
+     * or as CSV if the client prefers {@code text/csv}. The comments are written while they are read,
+     * so the memory used does not depend on their number.
+     *
+     * @param searchDto Search criteria, all comments are exported without
+     * @param sort Order of the comments
+     * @return Stream of CommentDto
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> export(@Valid @RequestBody(required = false) SearchDto searchDto,
+                                                        Sort sort,
+                                                        @RequestHeader(name = HttpHeaders.ACCEPT, required = false)
+                                                        String accept) {
+        CommentExport export = commentService.export((searchDto != null) ? searchDto : new SearchDto(), sort);
+        boolean csv = TEXT_CSV.equals(exportType(accept));
+
+        StreamingResponseBody body = out -> {
+            try (CommentWriter writer = csv ? new CsvCommentWriter(out) : new NdjsonCommentWriter(out, objectMapper)) {
+                export.writeTo(writer);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Chooses the export format with the highest quality in the Accept header. The quality of a format
+     * is the one of the most specific media range including it, as in RFC 9110.
+     */
+    private static MediaType exportType(String accept) {
+        if (accept == null) {
+            return EXPORT_TYPES.get(0);
+        }
+
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType best = EXPORT_TYPES.get(0);
+        double bestQuality = 0;
+
+        for (MediaType type : EXPORT_TYPES) {
+            MediaType range = null;
+
+            for (MediaType candidate : accepted) {
+                if (candidate.includes(type) && (range == null || specificity(candidate) > specificity(range))) {
+                    range = candidate;
+                }
+            }
+
+            if (range != null && range.getQualityValue() > bestQuality) {
+                best = type;
+                bestQuality = range.getQualityValue();
+            }
+        }
+
+        return best;
+    }
+
+    private static int specificity(MediaType range) {
+        if (range.isWildcardType()) {
+            return 0;
+        }
+
+        return range.isWildcardSubtype() ? 1 : 2;
+    }
 }
@@ -0,0 +1,64 @@
+package by.touchme.commentservice.criteria;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in a news comment thread ordered by (time, id): the next page starts
+ * right after this comment. Clients only see the opaque url safe token.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentCursor {
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final Instant time;
+    private final Long id;
+
+    public static CommentCursor of(CommentDto comment) {
+        Date time = comment.getTime();
+        // Keep the sub-millisecond part of the database timestamp, or the comment would be returned again
+        Instant instant = (time instanceof Timestamp timestamp) ? timestamp.toInstant() : time.toInstant();
+        return new CommentCursor(instant, comment.getId());
+    }
+
+    public static CommentCursor decode(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+
+            if (bytes.length != TOKEN_BYTES) {
+                throw new InvalidCursorException(token);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            Instant time = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new CommentCursor(time, buffer.getLong());
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(time.getEpochSecond())
+                .putInt(time.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return the time as a timestamp with nanoseconds, for query parameters
+     */
+    public Timestamp getTimestamp() {
+        return Timestamp.from(time);
+    }
+}
@@ -0,0 +1,20 @@
+package by.touchme.commentservice.criteria;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Node of a boolean search expression. Exactly one of the fields is set: a single
+ * {@code criteria}, a group of expressions that must all ({@code and}) or at least one of
+ * which ({@code or}) must hold, or an expression that must {@code not} hold.
+ */
+@Data
+@RequiredArgsConstructor
+public class SearchExpression {
+    private SearchCriteria criteria;
+    private List<SearchExpression> and;
+    private List<SearchExpression> or;
+    private SearchExpression not;
+}
@@ -14,5 +14,10 @@ public enum SearchOperation {
     GREATER_THAN,
     GREATER_THAN_EQUAL,
     LESS_THAN,
-    LESS_THAN_EQUAL
+    LESS_THAN_EQUAL,
+    /**
+     * Full-text search, every word of the value must start a word of the field.
+     * Results are ranked by relevance unless a sort is requested.
+     */
+    MATCHES
 }
@@ -0,0 +1,20 @@
+package by.touchme.commentservice.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sends the read-only transactions of the method to the primary instead of a replica.
+ * <p>
+ * Meant for the reads that fill a cache: after a change evicts an entry, a replica that has not
+ * applied the change yet would put the old value back into the cache, where it stays until the
+ * next eviction, long after the replica caught up.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,104 @@
+package by.touchme.commentservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Pool of one replica and what the last check found out about it.
+ */
+@Getter
+@Slf4j
+public class Replica {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean available;
+
+    /**
+     * Replication lag measured by the last check, zero without a lag query.
+     */
+    private volatile Duration lag;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.available = true;
+        this.lag = Duration.ZERO;
+    }
+
+    /**
+     * Connections of the pool in use, 0 if the pool does not tell.
+     */
+    public int activeConnections() {
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+            return (pool != null) ? pool.getActiveConnections() : 0;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Takes the replica out of the rotation until the next successful check.
+     */
+    public void markUnavailable(SQLException ex) {
+        if (available) {
+            log.warn("Replica {} is unavailable: {}", name, ex.getMessage());
+        }
+
+        available = false;
+    }
+
+    /**
+     * Validates a connection of the replica and measures its lag.
+     *
+     * @param lagQuery returns the replication lag in seconds, only the connection is validated if null
+     * @param maxLag   lag above which the replica is skipped
+     */
+    public void check(String lagQuery, Duration maxLag) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (lagQuery == null) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection is not valid");
+                }
+            } else {
+                lag = queryLag(connection, lagQuery);
+            }
+        } catch (SQLException ex) {
+            markUnavailable(ex);
+            return;
+        }
+
+        boolean lagging = lag.compareTo(maxLag) > 0;
+
+        if (lagging && available) {
+            log.warn("Replica {} lags {} behind the primary", name, lag);
+        } else if (!lagging && !available) {
+            log.info("Replica {} is available again", name);
+        }
+
+        available = !lagging;
+    }
+
+    private static Duration queryLag(Connection connection, String lagQuery) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                throw new SQLException("Lag query returned no row");
+            }
+
+            return Duration.ofMillis(Math.round(resultSet.getDouble(1) * 1000));
+        }
+    }
+}
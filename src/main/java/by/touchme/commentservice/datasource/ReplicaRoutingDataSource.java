@@ -0,0 +1,258 @@
+package by.touchme.commentservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to the replicas and all others to the primary.
+ * <p>
+ * A transaction is marked read-only only after it asked for its connection, so this data source
+ * has to be wrapped into a {@link LazyConnectionDataSourceProxy}, which fetches the connection at
+ * the first statement.
+ * <p>
+ * Replicas that are down or lag behind the primary more than allowed are skipped until a later
+ * check finds them fine again. A user who committed a write within the sticky window reads from
+ * the primary, so they see their own changes before these reach the replicas. Without an available
+ * replica the reads go to the primary as well.
+ * <p>
+ * The reads of a thread can be sent to the primary with {@link #readFromPrimary(boolean)}, see
+ * {@link ReadFromPrimary}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new NamedThreadLocal<>("Reads from the primary");
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final long stickyNanos;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final ConcurrentHashMap<String, Long> lastWrites;
+    private final AtomicInteger next;
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param stickyWindow how long the reads of a user go to the primary after their write
+     * @param lagQuery     returns the replication lag of a replica in seconds, only connections are validated if null
+     * @param maxLag       lag above which a replica is skipped
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaSelection selection,
+                                    Duration stickyWindow, String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.stickyNanos = stickyWindow.toNanos();
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.lastWrites = new ConcurrentHashMap<>();
+        this.next = new AtomicInteger();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+
+            return connect(primary, username, password);
+        }
+
+        if (isSticky() || Boolean.TRUE.equals(PRIMARY_READS.get())) {
+            return connect(primary, username, password);
+        }
+
+        for (Replica replica = select(); replica != null; replica = select()) {
+            try {
+                return connect(replica.getDataSource(), username, password);
+            } catch (SQLException ex) {
+                replica.markUnavailable(ex);
+            }
+        }
+
+        return connect(primary, username, password);
+    }
+
+    /**
+     * Sends the read-only transactions of the current thread to the primary, or lets them go to the replicas again.
+     *
+     * @return whether they went to the primary before, to be restored afterwards
+     */
+    public static boolean readFromPrimary(boolean primary) {
+        boolean previous = Boolean.TRUE.equals(PRIMARY_READS.get());
+
+        if (primary) {
+            PRIMARY_READS.set(Boolean.TRUE);
+        } else {
+            PRIMARY_READS.remove();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Checks the replicas on a background thread at the given interval.
+     */
+    public synchronized void start(Duration interval) {
+        if (checker != null) {
+            return;
+        }
+
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Validates and measures the lag of every replica and forgets the writes out of the sticky window.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check(lagQuery, maxLag);
+        }
+
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(time -> now - time >= stickyNanos);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Stops the checks and closes the pools.
+     */
+    @Override
+    public synchronized void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+
+        closePool(primary);
+        replicas.forEach(replica -> closePool(replica.getDataSource()));
+    }
+
+    /**
+     * @return an available replica, null if there is none
+     */
+    private Replica select() {
+        int size = replicas.size();
+
+        if (selection == ReplicaSelection.LEAST_CONNECTIONS) {
+            Replica selected = null;
+            int least = Integer.MAX_VALUE;
+
+            for (Replica replica : replicas) {
+                int active;
+
+                if (replica.isAvailable() && (active = replica.activeConnections()) < least) {
+                    selected = replica;
+                    least = active;
+                }
+            }
+
+            return selected;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+
+            if (replica.isAvailable()) {
+                return replica;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Starts the sticky window of the current user when the transaction commits.
+     */
+    private void recordWrite() {
+        String user = currentUser();
+
+        if (user == null || stickyNanos <= 0) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWrites.put(user, System.nanoTime());
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(user, System.nanoTime());
+            }
+        });
+    }
+
+    private boolean isSticky() {
+        if (lastWrites.isEmpty()) {
+            return false;
+        }
+
+        String user = currentUser();
+        Long time = (user != null) ? lastWrites.get(user) : null;
+
+        return time != null && System.nanoTime() - time < stickyNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+
+        return authentication.getName();
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return (username != null) ? dataSource.getConnection(username, password) : dataSource.getConnection();
+    }
+
+    private static void closePool(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                log.warn("Could not close the pool", ex);
+            }
+        }
+    }
+}
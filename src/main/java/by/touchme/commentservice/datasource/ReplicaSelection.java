@@ -0,0 +1,17 @@
+package by.touchme.commentservice.datasource;
+
+/**
+ * How a read-only transaction picks one of the available replicas.
+ */
+public enum ReplicaSelection {
+
+    /**
+     * Each replica in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The replica with the fewest connections in use.
+     */
+    LEAST_CONNECTIONS,
+}
@@ -0,0 +1,48 @@
+package by.touchme.commentservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import, with one item per comment read, in the order of the input.
+ */
+@Data
+@NoArgsConstructor
+public class BulkResultDto {
+    long created;
+    long failed;
+    List<Item> items = new ArrayList<>();
+
+    public void addCreated(int index, Long id) {
+        created++;
+        items.add(new Item(index, 201, id, null));
+    }
+
+    public void addFailed(int index, int status, String message) {
+        failed++;
+        items.add(new Item(index, status, null, message));
+    }
+
+    /**
+     * @param index   position of the comment in the input
+     * @param status  http status the comment would have been answered with on its own
+     * @param id      identifier of the created comment, written as a string like the id of the comment
+     * @param message reason of the failure
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private int status;
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long id;
+        private String message;
+    }
+}
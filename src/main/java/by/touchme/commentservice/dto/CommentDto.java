@@ -1,15 +1,26 @@
 package by.touchme.commentservice.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import lombok.NoArgsConstructor;
 
 import java.util.Date;
 
+/**
+ * The all args constructor is the target of the projections of {@code CommentRepository}.
+ */
 @Data
-@RequiredArgsConstructor
+@NoArgsConstructor
+@AllArgsConstructor
 public class CommentDto implements AclEntity {
 
+    /**
+     * Snowflake ids exceed the integers a JavaScript number holds exactly, they are written as strings.
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
 
     @NotNull
@@ -0,0 +1,19 @@
+package by.touchme.commentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    List<T> content;
+
+    /**
+     * Cursor of the next page, {@code null} on the last page.
+     */
+    String next;
+}
@@ -2,21 +2,26 @@ package by.touchme.commentservice.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class PageDto<T> {
     List<T> content;
     Metadata metadata;
 
     public PageDto(Page<T> page) {
-        this.content = page.getContent();
+        // A plain list, so cached pages can be deserialized
+        this.content = new ArrayList<>(page.getContent());
         this.metadata = new Metadata(page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
     }
 
     @Data
+    @NoArgsConstructor
     @AllArgsConstructor
     static class Metadata {
         private long number;
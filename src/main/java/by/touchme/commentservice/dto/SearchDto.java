@@ -1,7 +1,9 @@
 package by.touchme.commentservice.dto;
 
 import by.touchme.commentservice.criteria.SearchCriteria;
-import jakarta.validation.constraints.NotNull;
+import by.touchme.commentservice.criteria.SearchExpression;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
@@ -10,6 +12,19 @@ import java.util.List;
 @Data
 @RequiredArgsConstructor
 public class SearchDto {
-    @NotNull
+    /**
+     * Criteria that must all hold.
+     */
     private List<SearchCriteria> criteriaList;
+
+    /**
+     * Boolean expression that must hold as well.
+     */
+    private SearchExpression expression;
+
+    @JsonIgnore
+    @AssertTrue(message = "criteriaList or expression is required")
+    public boolean isCriteriaPresent() {
+        return criteriaList != null || expression != null;
+    }
 }
@@ -0,0 +1,33 @@
+package by.touchme.commentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page without the total number of elements, so no count query is needed.
+ */
+@Data
+@NoArgsConstructor
+public class SliceDto<T> {
+    List<T> content;
+    Metadata metadata;
+
+    public SliceDto(Slice<T> slice) {
+        this.content = new ArrayList<>(slice.getContent());
+        this.metadata = new Metadata(slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Metadata {
+        private long number;
+        private long size;
+        private boolean hasNext;
+    }
+}
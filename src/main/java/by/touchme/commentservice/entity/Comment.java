@@ -1,5 +1,6 @@
 package by.touchme.commentservice.entity;
 
+import by.touchme.commentservice.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -16,9 +17,10 @@ public class Comment {
 
     /**
      * Unique identifier of the comment.
+     * Time ordered and assigned on persist, so inserts are batched and need no round-trip for the id.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     /**
@@ -36,10 +38,11 @@ public class Comment {
 
     /**
      * Time of creation of the news.
+     * Not updatable, the keyset pagination orders by it.
      */
     @CreationTimestamp
     @Temporal(TemporalType.TIMESTAMP)
-    @Column(name = "time")
+    @Column(name = "time", updatable = false)
     private Date time;
 
     /**
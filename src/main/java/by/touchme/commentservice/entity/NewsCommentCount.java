@@ -0,0 +1,47 @@
+package by.touchme.commentservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Number of comments of a news, kept up to date by every create and delete,
+ * so pages do not need to count the comments. Also tells the time of the first comment,
+ * which bounds the reads of the thread to the partitions it can be in.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "news_comment_counts")
+@Entity
+public class NewsCommentCount {
+
+    /**
+     * The identifier of the news.
+     */
+    @Id
+    @Column(name = "news_id")
+    private Long newsId;
+
+    /**
+     * Number of comments of the news.
+     */
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    /**
+     * Time of the earliest comment the news ever had, null if unknown.
+     * Lowered by every new comment, deletes keep it, so it may be earlier than the current first comment.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "first_comment_time")
+    private Date firstCommentTime;
+}
@@ -0,0 +1,28 @@
+package by.touchme.commentservice.exception;
+
+/**
+ * The class {@code InvalidCursorException} is a form of {@code RuntimeException}
+ * that indicates a pagination cursor that was not issued by the service.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Token of the cursor.
+     */
+    private final String token;
+
+    /**
+     * Constructs a new runtime exception with the cursor token.
+     *
+     * @param   token   the cursor token. The token is saved for
+     *          later retrieval by the {@link #getMessage()} method.
+     */
+    public InvalidCursorException(String token) {
+        this.token = token;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Cursor " + token + " is not valid";
+    }
+}
@@ -0,0 +1,35 @@
+package by.touchme.commentservice.exception;
+
+/**
+ * The class {@code InvalidSearchCriteriaException} is a form of {@code RuntimeException}
+ * that indicates a search criteria that cannot be applied to the comments.
+ */
+public class InvalidSearchCriteriaException extends RuntimeException {
+
+    /**
+     * Key of the criteria.
+     */
+    private final String key;
+
+    /**
+     * Why the criteria cannot be applied.
+     */
+    private final String reason;
+
+    /**
+     * Constructs a new runtime exception with the criteria key and the reason.
+     *
+     * @param   key      the criteria key.
+     * @param   reason   why the criteria cannot be applied. Both are saved for
+     *          later retrieval by the {@link #getMessage()} method.
+     */
+    public InvalidSearchCriteriaException(String key, String reason) {
+        this.key = key;
+        this.reason = reason;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Search criteria " + key + " is not valid: " + reason;
+    }
+}
@@ -0,0 +1,15 @@
+package by.touchme.commentservice.export;
+
+import java.io.IOException;
+
+/**
+ * Export of a compiled search, run when the response is streamed.
+ */
+@FunctionalInterface
+public interface CommentExport {
+
+    /**
+     * Reads the comments with a database cursor and passes them on as they arrive.
+     */
+    void writeTo(CommentWriter writer) throws IOException;
+}
@@ -0,0 +1,15 @@
+package by.touchme.commentservice.export;
+
+import by.touchme.commentservice.dto.CommentDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes comments one by one in an export format, holding none of them.
+ * Closing flushes the writer but leaves the underlying stream open.
+ */
+public interface CommentWriter extends Closeable {
+
+    void write(CommentDto comment) throws IOException;
+}
@@ -0,0 +1,62 @@
+package by.touchme.commentservice.export;
+
+import by.touchme.commentservice.dto.CommentDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes comments as RFC 4180 CSV with a header line. Fields holding a separator,
+ * a quote or a line break are quoted, times are ISO-8601 instants.
+ */
+public class CsvCommentWriter implements CommentWriter {
+
+    private static final String HEADER = "id,newsId,username,text,time";
+    private static final String LINE_BREAK = "\r\n";
+
+    private final Writer writer;
+
+    public CsvCommentWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write(LINE_BREAK);
+    }
+
+    @Override
+    public void write(CommentDto comment) throws IOException {
+        writer.write(String.valueOf(comment.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(comment.getNewsId()));
+        writer.write(',');
+        writeField(comment.getUsername());
+        writer.write(',');
+        writeField(comment.getText());
+        writer.write(',');
+        writer.write((comment.getTime() != null) ? comment.getTime().toInstant().toString() : "");
+        writer.write(LINE_BREAK);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
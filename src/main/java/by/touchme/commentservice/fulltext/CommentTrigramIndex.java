@@ -0,0 +1,79 @@
+package by.touchme.commentservice.fulltext;
+
+import by.touchme.commentservice.criteria.SearchCriteria;
+import by.touchme.commentservice.entity.Comment;
+import by.touchme.commentservice.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram indexes of the username and text of the comments for databases without {@code pg_trgm},
+ * enabled by {@code search.trigram-index=local}. Filled from the database on startup and kept
+ * in sync by the write methods of the comment service.
+ * <p>
+ * Substring criteria are narrowed down to the candidate identifiers before the database
+ * evaluates their {@code LIKE}. Negated criteria cannot be narrowed, a candidate set is a superset.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.trigram-index", havingValue = "local")
+@Component
+public class CommentTrigramIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final CommentRepository commentRepository;
+    private final Map<String, TrigramIndex> indexes = Map.of(
+            "username", new TrigramIndex(),
+            "text", new TrigramIndex()
+    );
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Slice<Comment> slice = commentRepository.findAll(PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id")));
+        slice.forEach(this::put);
+
+        while (slice.hasNext()) {
+            slice = commentRepository.findAll(slice.nextPageable());
+            slice.forEach(this::put);
+        }
+
+        log.info("Loaded {} comments into the trigram index", indexes.get("text").size());
+    }
+
+    public void put(Comment comment) {
+        indexes.get("username").put(comment.getId(), comment.getUsername());
+        indexes.get("text").put(comment.getId(), comment.getText());
+    }
+
+    public void remove(Long id) {
+        indexes.values().forEach(index -> index.remove(id));
+    }
+
+    /**
+     * @return identifiers of the comments that may match the criteria,
+     * null if the criteria cannot be narrowed down
+     */
+    public Set<Long> candidates(SearchCriteria criteria) {
+        TrigramIndex index = indexes.get(criteria.getKey());
+
+        if (index == null || criteria.getValue() == null) {
+            return null;
+        }
+
+        return switch (criteria.getOperation()) {
+            case CONTAINS, BEGINS_WITH, ENDS_WITH -> index.candidates(criteria.getValue().toString());
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package by.touchme.commentservice.fulltext;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.spi.TypeConfiguration;
+
+/**
+ * Registers the full-text search functions used by the criteria queries:
+ * {@value #MATCH}(text, query) and {@value #RANK}(text, query), the query being built by {@link FullTextQuery}.
+ * <p>
+ * On PostgreSQL they are rendered with the {@code simple} text search configuration,
+ * which matches the expression of the GIN index on {@code comments.text}. Other
+ * databases call functions of the same name, on H2 these are the aliases of {@link H2FullText}.
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+
+    public static final String MATCH = "fts_match";
+    public static final String RANK = "fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        SqmFunctionRegistry registry = contributions.getFunctionRegistry();
+        TypeConfiguration types = contributions.getTypeConfiguration();
+        BasicType<Boolean> booleanType = types.getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = types.getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        if (contributions.getDialect() instanceof PostgreSQLDialect) {
+            registry.registerPattern(MATCH,
+                    "(to_tsvector('simple', ?1) @@ to_tsquery('simple', ?2))", booleanType);
+            registry.registerPattern(RANK,
+                    "ts_rank(to_tsvector('simple', ?1), to_tsquery('simple', ?2))", doubleType);
+        } else {
+            registry.registerNamed(MATCH, booleanType);
+            registry.registerNamed(RANK, doubleType);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package by.touchme.commentservice.fulltext;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the text typed by a user into a full-text query in the {@code tsquery} syntax.
+ * Every word becomes a prefix term and all terms must match, so {@code "hab tell"}
+ * finds {@code "Sed viverra tellus in hac habitasse platea"}. Everything but letters
+ * and digits is dropped, the user cannot inject {@code tsquery} operators.
+ */
+public final class FullTextQuery {
+
+    private static final String WORD_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * @return the query, empty if the text has no words
+     */
+    public static String of(String text) {
+        return Arrays.stream(words(text))
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * Splits a text into lower case words the way the {@code simple} text search configuration does.
+     */
+    static String[] words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(WORD_SEPARATOR))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+}
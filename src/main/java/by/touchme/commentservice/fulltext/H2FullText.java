@@ -0,0 +1,42 @@
+package by.touchme.commentservice.fulltext;
+
+import java.util.Arrays;
+
+/**
+ * Java implementation of the full-text functions for H2, which has no {@code tsvector}.
+ * Registered as aliases by the liquibase changelog, evaluated row by row without an index.
+ */
+public final class H2FullText {
+
+    private H2FullText() {
+    }
+
+    /**
+     * @return whether every prefix term of the query starts a word of the text
+     */
+    public static Boolean matches(String text, String query) {
+        if (text == null || query == null) {
+            return false;
+        }
+
+        String[] words = FullTextQuery.words(text);
+        return Arrays.stream(FullTextQuery.words(query))
+                .allMatch(term -> Arrays.stream(words).anyMatch(word -> word.startsWith(term)));
+    }
+
+    /**
+     * @return share of the words of the text starting with a term of the query
+     */
+    public static Double rank(String text, String query) {
+        if (text == null || query == null) {
+            return 0.0;
+        }
+
+        String[] words = FullTextQuery.words(text);
+        String[] terms = FullTextQuery.words(query);
+        long matched = Arrays.stream(words)
+                .filter(word -> Arrays.stream(terms).anyMatch(word::startsWith))
+                .count();
+        return (words.length == 0) ? 0.0 : (double) matched / words.length;
+    }
+}
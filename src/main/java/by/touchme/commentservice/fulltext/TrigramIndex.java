@@ -0,0 +1,143 @@
+package by.touchme.commentservice.fulltext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-process trigram index of one text field, the counterpart of a {@code pg_trgm} GIN index.
+ * Every lower case value is cut into overlapping trigrams, each trigram has a posting list
+ * of the documents containing it. A document containing a substring contains all of its
+ * trigrams, so intersecting their posting lists yields a superset of the matches that the
+ * exact {@code LIKE} then only has to check.
+ * <p>
+ * A trigram is packed into a {@code long} as three 16 bit chars.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<Long, Set<Long>> postings;
+    private final Map<Long, long[]> documents;
+    private final ReentrantReadWriteLock lock;
+
+    public TrigramIndex() {
+        this.postings = new HashMap<>();
+        this.documents = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Indexes the value of a document, replacing its previous value.
+     */
+    public void put(Long id, String value) {
+        long[] trigrams = (value != null) ? trigrams(value) : new long[0];
+
+        lock.writeLock().lock();
+
+        try {
+            removeDocument(id);
+            documents.put(id, trigrams);
+
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return identifiers of the documents that may contain the substring,
+     * null if it is shorter than a trigram and every document may contain it
+     */
+    public Set<Long> candidates(String substring) {
+        long[] trigrams = trigrams(substring);
+
+        if (trigrams.length == 0) {
+            return null;
+        }
+
+        lock.readLock().lock();
+
+        try {
+            List<Set<Long>> lists = new ArrayList<>(trigrams.length);
+
+            for (long trigram : trigrams) {
+                lists.add(postings.getOrDefault(trigram, Collections.emptySet()));
+            }
+
+            // Start with the rarest trigram, the intersection never grows
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> candidates = new HashSet<>(lists.get(0));
+
+            for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(lists.get(i));
+            }
+
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed documents.
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long id) {
+        long[] trigrams = documents.remove(id);
+
+        if (trigrams == null) {
+            return;
+        }
+
+        for (long trigram : trigrams) {
+            Set<Long> list = postings.get(trigram);
+            list.remove(id);
+
+            if (list.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * @return the distinct trigrams of the lower case value
+     */
+    static long[] trigrams(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+
+        return IntStream.rangeClosed(0, lower.length() - GRAM)
+                .mapToLong(i -> ((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16) | lower.charAt(i + 2))
+                .distinct()
+                .toArray();
+    }
+}
@@ -1,10 +1,14 @@
 package by.touchme.commentservice.handler;
 
 import by.touchme.commentservice.exception.CommentNotFoundException;
+import by.touchme.commentservice.exception.InvalidCursorException;
+import by.touchme.commentservice.exception.InvalidSearchCriteriaException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
@@ -32,16 +36,39 @@ public class ErrorHandler {
     }
 
     /**
-     * Validation via @Valid annotation failed or Empty required body.
+     * Validation via @Valid or the constraints of a request parameter failed or Empty required body.
      *
-     * @param ex MethodArgumentNotValidException or HttpMessageNotReadableException
+     * @param ex MethodArgumentNotValidException, ConstraintViolationException or HttpMessageNotReadableException
      * @return Object with error message
      */
-    @ExceptionHandler(value = {MethodArgumentNotValidException.class, HttpMessageNotReadableException.class})
+    @ExceptionHandler(value = {MethodArgumentNotValidException.class, ConstraintViolationException.class,
+            HttpMessageNotReadableException.class})
     public ResponseEntity<Object> handleNotValidException(Exception ex, WebRequest request) {
         return prepareErrorMessage(ex, request, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Pagination cursor not issued by the service.
+     *
+     * @param ex InvalidCursorException
+     * @return Object with error message
+     */
+    @ExceptionHandler(value = InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(Exception ex, WebRequest request) {
+        return prepareErrorMessage(ex, request, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Search criteria with an unknown key or a value of the wrong type.
+     *
+     * @param ex InvalidSearchCriteriaException
+     * @return Object with error message
+     */
+    @ExceptionHandler(value = InvalidSearchCriteriaException.class)
+    public ResponseEntity<Object> handleInvalidSearchCriteriaException(Exception ex, WebRequest request) {
+        return prepareErrorMessage(ex, request, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Unauthorized access.
      *
@@ -89,6 +116,9 @@ public class ErrorHandler {
     private ResponseEntity<Object> prepareErrorMessage(Exception ex, WebRequest request, HttpStatus status) {
         String requestUri = ((ServletWebRequest) request).getRequest().getRequestURI();
         ErrorMessage errorMessage = new ErrorMessage(ex.getMessage(), requestUri);
-        return new ResponseEntity<>(errorMessage, new HttpHeaders(), status);
+        HttpHeaders headers = new HttpHeaders();
+        // Errors are JSON even for endpoints producing other formats, like the export
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(errorMessage, headers, status);
     }
 }
@@ -0,0 +1,18 @@
+package by.touchme.commentservice.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the identifier of a new entity from a {@link SnowflakeIdGenerator} when it is persisted,
+ * without a round-trip to the database. The node is the hibernate setting {@value SnowflakeIdentifierGenerator#NODE_SETTING}.
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,87 @@
+package by.touchme.commentservice.id;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time ordered 64-bit identifiers in the manner of Twitter's Snowflake:
+ * 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node and 12 bits of sequence,
+ * which allows 4096 identifiers per millisecond and node until 2092.
+ * <p>
+ * The last identifier is the whole state, kept in an {@link AtomicLong} and advanced by
+ * compare-and-set, so concurrent callers never block. Identifiers are strictly increasing
+ * per generator. If the clock moves backwards the generator keeps counting from its last
+ * timestamp instead of failing or repeating identifiers, and a sequence running out of
+ * numbers borrows the next millisecond; both are caught up once the clock has passed them.
+ */
+public class SnowflakeIdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2023-01-01T00:00:00Z");
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private final Clock clock;
+    private final long epochMillis;
+    private final AtomicLong last;
+
+    public SnowflakeIdGenerator(long node) {
+        this(node, Clock.systemUTC());
+    }
+
+    public SnowflakeIdGenerator(long node, Clock clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node " + node + " is not between 0 and " + MAX_NODE);
+        }
+
+        this.node = node;
+        this.clock = clock;
+        this.epochMillis = EPOCH.toEpochMilli();
+        this.last = new AtomicLong(-1);
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long now = clock.millis() - epochMillis;
+            long previousTimestamp = previous >> TIMESTAMP_SHIFT;
+            long next;
+
+            if (now > previousTimestamp) {
+                next = compose(now, 0);
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Same millisecond, or the clock went back: continue the sequence of the last one
+                next = previous + 1;
+            } else {
+                next = compose(previousTimestamp + 1, 0);
+            }
+
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * @return the time an identifier was generated at, to the millisecond
+     */
+    public static Instant timestamp(long id) {
+        return EPOCH.plusMillis(id >>> TIMESTAMP_SHIFT);
+    }
+
+    /**
+     * @return the node an identifier was generated on
+     */
+    public static long node(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    private long compose(long timestamp, long sequence) {
+        return (timestamp << TIMESTAMP_SHIFT) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
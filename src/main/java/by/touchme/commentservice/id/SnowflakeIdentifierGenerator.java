@@ -0,0 +1,55 @@
+package by.touchme.commentservice.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate side of {@link SnowflakeId}. Hibernate creates a generator per annotated entity and
+ * session factory, all of them take the identifiers from one {@link SnowflakeIdGenerator} per node,
+ * so two session factories on the same database never hand out the same identifier.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    public static final String NODE_SETTING = "snowflake.node-id";
+
+    private static final Map<Integer, SnowflakeIdGenerator> GENERATORS = new ConcurrentHashMap<>();
+
+    private final SnowflakeIdGenerator generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        String node = context.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSetting(NODE_SETTING, StandardConverters.STRING);
+
+        this.generator = GENERATORS.computeIfAbsent(parseNode(node), SnowflakeIdGenerator::new);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId();
+    }
+
+    /**
+     * Fails on a node left unset instead of letting every such instance be node 0 and collide with the others.
+     * Hibernate resolves placeholders itself, so an unset SNOWFLAKE_NODE_ID arrives here as no setting at all.
+     */
+    private static int parseNode(String node) {
+        if (node == null || node.isBlank()) {
+            throw new IllegalStateException("Hibernate setting " + NODE_SETTING + " is required, "
+                    + "set it to the node of this instance (0-" + SnowflakeIdGenerator.MAX_NODE + ")");
+        }
+
+        try {
+            return Integer.parseInt(node.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("Hibernate setting " + NODE_SETTING + " is not a number: " + node, ex);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package by.touchme.commentservice.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the monthly partitions of the comments table: creates the partitions of the coming
+ * months ahead of time and drops the ones past the retention. Both run in functions of the
+ * database, see changelog 0012, which serialize concurrent runs of several instances.
+ * <p>
+ * Dropping a partition is a catalog change instead of a delete of its rows. Each step commits
+ * on its own: the partition is released first, which makes it read-only and adjusts the counters
+ * of the news and the acl entries of its comments while only the partition is locked. Then it is
+ * detached, the only step that locks the whole comments table, and dropped. The cached comments
+ * and pages are cleared afterwards, also when a later partition fails after some were dropped.
+ */
+@Slf4j
+public class CommentPartitionMaintenance {
+
+    private static final List<String> CACHE_NAMES = List.of("comments", "newsCommentPages");
+    private static final String LOCK_KEY = "hashtext('comments_partitions')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final Integer retentionMonths;
+
+    /**
+     * @param monthsAhead     months after the current one that get their partition
+     * @param retentionMonths full months kept before the current one, null keeps all
+     */
+    public CommentPartitionMaintenance(JdbcTemplate jdbcTemplate, CacheManager cacheManager, Clock clock,
+                                       int monthsAhead, Integer retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            createPartitions();
+
+            if (retentionMonths != null) {
+                dropPartitions();
+            }
+        } catch (DataAccessException ex) {
+            log.error("Maintenance of the comment partitions failed", ex);
+        }
+    }
+
+    /**
+     * @return number of partitions created
+     */
+    public int createPartitions() {
+        Integer created = jdbcTemplate.queryForObject("select create_comments_partitions(?)", Integer.class,
+                monthsAhead);
+
+        log.info("Created {} comment partitions", created);
+        return (created != null) ? created : 0;
+    }
+
+    /**
+     * @return number of partitions dropped
+     */
+    public int dropPartitions() {
+        // One connection outside of a transaction, so every statement commits on its own
+        Integer dropped = jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                dropPartitions(new JdbcTemplate(new SingleConnectionDataSource(connection, true))));
+
+        return (dropped != null) ? dropped : 0;
+    }
+
+    /**
+     * Releases, detaches and drops the partitions past the retention one by one. A partition left behind
+     * by a failed step, e.g. a detach that timed out, is picked up again by the next run.
+     *
+     * @param session template of a single connection in auto-commit mode
+     */
+    int dropPartitions(JdbcTemplate session) {
+        LocalDate before = LocalDate.now(clock).withDayOfMonth(1).minusMonths(retentionMonths);
+
+        // Keeps out the other instances, the transaction scoped lock of the functions ends with each step
+        session.execute("select pg_advisory_lock(" + LOCK_KEY + ")");
+        int dropped = 0;
+
+        try {
+            List<String> partitions = session.queryForList("select comments_partitions_before(?)", String.class,
+                    Timestamp.valueOf(before.atStartOfDay()));
+
+            for (String partition : partitions) {
+                session.queryForObject("select release_comments_partition(?)", Boolean.class, partition);
+                session.queryForObject("select detach_comments_partition(?)", Boolean.class, partition);
+                session.execute("drop table \"" + partition + "\"");
+                dropped++;
+            }
+
+            log.info("Dropped {} comment partitions before {}", dropped, before);
+            return dropped;
+        } finally {
+            // The partitions dropped before a failed step are gone as well
+            if (dropped > 0) {
+                clearCaches();
+            }
+
+            session.execute("select pg_advisory_unlock(" + LOCK_KEY + ")");
+        }
+    }
+
+    private void clearCaches() {
+        CACHE_NAMES.stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+    }
+}
@@ -0,0 +1,20 @@
+package by.touchme.commentservice.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the latest comments of many news at once, a fragment of {@link CommentRepository}.
+ */
+public interface CommentFeedRepository {
+
+    /**
+     * Identifiers of the latest comments of each news in one query. Only the identifiers are read,
+     * from the (news_id, time, id) index, so the comments themselves may come from the cache.
+     *
+     * @param limit comments per news
+     * @return identifiers of the comments by news, newest first, news without comments are absent
+     */
+    Map<Long, List<Long>> findLatestIdsByNewsIds(Collection<Long> newsIds, int limit);
+}
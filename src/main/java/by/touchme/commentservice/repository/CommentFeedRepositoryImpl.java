@@ -0,0 +1,76 @@
+package by.touchme.commentservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On PostgreSQL a {@code LATERAL} join runs a backward scan of the (news_id, time, id) index
+ * per news, which stops after {@code limit} rows however long the thread is. The news come
+ * from the comment counters, so news without comments are skipped before touching the comments,
+ * and the time of their first comment prunes the older partitions for each news.
+ * Other databases number the comments of the news with {@code row_number()}, which reads all
+ * comments of the news but is standard SQL.
+ */
+public class CommentFeedRepositoryImpl implements CommentFeedRepository {
+
+    private static final String POSTGRES_LATEST = "select n.news_id, l.id from news_comment_counts n"
+            + " cross join lateral (select c.id, c.time from comments c where c.news_id = n.news_id"
+            + " and c.time >= coalesce(n.first_comment_time, '-infinity')"
+            + " order by c.time desc, c.id desc limit :limit) l"
+            + " where n.news_id in (:newsIds) and n.comment_count > 0"
+            + " order by n.news_id, l.time desc, l.id desc";
+
+    private static final String WINDOW_LATEST = "select news_id, id from ("
+            + "select c.news_id, c.id, c.time,"
+            + " row_number() over (partition by c.news_id order by c.time desc, c.id desc) as news_rank"
+            + " from comments c where c.news_id in (:newsIds)) r"
+            + " where news_rank <= :limit"
+            + " order by news_id, time desc, id desc";
+
+    private final EntityManager entityManager;
+    private final Dialect dialect;
+
+    public CommentFeedRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+
+    @Override
+    public Map<Long, List<Long>> findLatestIdsByNewsIds(Collection<Long> newsIds, int limit) {
+        Map<Long, List<Long>> ids = new LinkedHashMap<>();
+
+        if (newsIds.isEmpty()) {
+            return ids;
+        }
+
+        // The scalars make the rows typed, NativeQuery is only unwrapped raw
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        (dialect instanceof PostgreSQLDialect) ? POSTGRES_LATEST : WINDOW_LATEST)
+                .unwrap(NativeQuery.class)
+                .addScalar("news_id", StandardBasicTypes.LONG)
+                .addScalar("id", StandardBasicTypes.LONG)
+                .setParameter("newsIds", newsIds)
+                .setParameter("limit", limit)
+                .getResultList();
+
+        for (Object[] row : rows) {
+            ids.computeIfAbsent((Long) row[0], newsId -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        return ids;
+    }
+}
@@ -1,13 +1,63 @@
 package by.touchme.commentservice.repository;
 
+import by.touchme.commentservice.dto.CommentDto;
 import by.touchme.commentservice.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment> {
+public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment>,
+        CommentSearchRepository, CommentWriteRepository, CommentFeedRepository {
     Page<Comment> findAllByNewsId(Long newsId, Pageable pageable);
+
+    /**
+     * Selects comments straight into dtos, without managed entities.
+     */
+    String COMMENT_DTO = "select new by.touchme.commentservice.dto.CommentDto(c.id, c.newsId, c.username, c.text, c.time)"
+            + " from Comment c";
+
+    @Query(COMMENT_DTO + " where c.id = :id")
+    Optional<CommentDto> findDtoById(@Param("id") Long id);
+
+    @Query(COMMENT_DTO + " where c.id in :ids")
+    List<CommentDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = COMMENT_DTO, countQuery = "select count(c) from Comment c")
+    Page<CommentDto> findAllDto(Pageable pageable);
+
+    /**
+     * Comments of the news. No comment of the news is older than {@code since}, the bound
+     * only lets PostgreSQL skip the partitions of the months before.
+     */
+    @Query(COMMENT_DTO + " where c.newsId = :newsId and c.time >= :since")
+    Slice<CommentDto> findDtoSliceByNewsId(@Param("newsId") Long newsId, @Param("since") Date since,
+                                           Pageable pageable);
+
+    /**
+     * Comments of the news in creation order, {@code since} prunes partitions like above.
+     */
+    @Query(COMMENT_DTO + " where c.newsId = :newsId and c.time >= :since order by c.time, c.id")
+    List<CommentDto> findDtoByNewsIdOrderByTimeAndId(@Param("newsId") Long newsId, @Param("since") Date since,
+                                                     Pageable pageable);
+
+    /**
+     * Comments of the news after the given (time, id) position. The redundant
+     * {@code time >= :time} bounds the range scan of the (news_id, time, id) index
+     * and prunes the partitions before the position.
+     */
+    @Query(COMMENT_DTO + " where c.newsId = :newsId and c.time >= :time"
+            + " and (c.time > :time or c.id > :id) order by c.time, c.id")
+    List<CommentDto> findDtoByNewsIdAfter(@Param("newsId") Long newsId, @Param("time") Date time,
+                                          @Param("id") Long id, Pageable pageable);
 }
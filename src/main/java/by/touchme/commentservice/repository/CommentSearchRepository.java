@@ -0,0 +1,28 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.specification.SearchQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.stream.Stream;
+
+/**
+ * Runs compiled search queries, a fragment of {@link CommentRepository}.
+ */
+public interface CommentSearchRepository {
+
+    /**
+     * @param query    compiled criteria, its plan already contains the sort of the pageable
+     * @param pageable pagination options
+     */
+    Page<CommentDto> findAll(SearchQuery query, Pageable pageable);
+
+    /**
+     * Streams all matching comments from a forward-only cursor. Must be consumed and closed
+     * within a transaction, which PostgreSQL needs to honour the fetch size.
+     *
+     * @param fetchSize rows the driver fetches per round-trip
+     */
+    Stream<CommentDto> stream(SearchQuery query, int fetchSize);
+}
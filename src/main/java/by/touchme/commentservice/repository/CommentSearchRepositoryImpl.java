@@ -0,0 +1,61 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.specification.SearchQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class CommentSearchRepositoryImpl implements CommentSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<CommentDto> findAll(SearchQuery query, Pageable pageable) {
+        if (query.empty()) {
+            return Page.empty(pageable);
+        }
+
+        TypedQuery<CommentDto> select = bind(entityManager.createQuery(query.plan().selectQuery(), CommentDto.class), query);
+
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+
+        // The count is only run if the page does not tell the total
+        return PageableExecutionUtils.getPage(select.getResultList(), pageable,
+                () -> bind(entityManager.createQuery(query.plan().countQuery(), Long.class), query).getSingleResult());
+    }
+
+    @Override
+    public Stream<CommentDto> stream(SearchQuery query, int fetchSize) {
+        if (query.empty()) {
+            return Stream.empty();
+        }
+
+        // Dtos are not managed, so the persistence context stays empty however many rows pass
+        return bind(entityManager.createQuery(query.plan().selectQuery(), CommentDto.class), query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private static <Q extends Query> Q bind(Q jpaQuery, SearchQuery query) {
+        List<Object> parameters = query.parameters();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            jpaQuery.setParameter("p" + i, parameters.get(i));
+        }
+
+        return jpaQuery;
+    }
+}
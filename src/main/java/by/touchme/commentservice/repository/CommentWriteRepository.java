@@ -0,0 +1,42 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.entity.Comment;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes comments with as few round-trips as possible, a fragment of {@link CommentRepository}.
+ * Updates and deletes take a single statement. Both report the news the comment belonged to
+ * before the change, which the callers need to invalidate the news, and are empty if there
+ * is no comment with the id.
+ */
+public interface CommentWriteRepository {
+
+    /**
+     * Inserts new comments in JDBC batches and detaches them afterwards,
+     * so a long import does not grow the persistence context.
+     *
+     * @return the comments with their identifiers and times
+     */
+    List<Comment> insertAll(List<Comment> comments);
+
+    /**
+     * Overwrites the news, username and text of the comment, its time is kept.
+     */
+    Optional<Update> updateById(Long id, CommentDto comment);
+
+    /**
+     * @return the news of the removed comment
+     */
+    Optional<Long> removeById(Long id);
+
+    /**
+     * @param previousNewsId news of the comment before the update
+     * @param time           time of creation of the comment
+     */
+    record Update(Long previousNewsId, Date time) {
+    }
+}
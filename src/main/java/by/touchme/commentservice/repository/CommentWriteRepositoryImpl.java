@@ -0,0 +1,149 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.entity.Comment;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Uses the data change statements of the database to read the previous row and write it
+ * in one round-trip: {@code RETURNING} on PostgreSQL, where the update joins the table
+ * with itself to see the old news, and the {@code OLD TABLE} delta tables of H2. Other
+ * databases select the row before a bulk statement.
+ */
+public class CommentWriteRepositoryImpl implements CommentWriteRepository {
+
+    private static final String POSTGRES_UPDATE = "update comments c"
+            + " set news_id = :newsId, username = :username, text = :text"
+            + " from comments old where c.id = :id and old.id = c.id"
+            + " returning old.news_id, c.time";
+
+    private static final String POSTGRES_DELETE = "delete from comments where id = :id returning news_id";
+
+    private static final String H2_UPDATE = "select news_id, time from old table ("
+            + "update comments set news_id = :newsId, username = :username, text = :text where id = :id)";
+
+    private static final String H2_DELETE = "select news_id from old table (delete from comments where id = :id)";
+
+    private final EntityManager entityManager;
+    private final Dialect dialect;
+
+    public CommentWriteRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+
+    @Override
+    public List<Comment> insertAll(List<Comment> comments) {
+        // The ids come from the SnowflakeIdGenerator of the service, so persist sends no statement before the flush
+        comments.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+
+        return comments;
+    }
+
+    @Override
+    public Optional<Update> updateById(Long id, CommentDto comment) {
+        String sql = updateStatement();
+
+        if (sql == null) {
+            return updateWithSelect(id, comment);
+        }
+
+        // The scalars make the rows typed, NativeQuery is only unwrapped raw
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("news_id", StandardBasicTypes.LONG)
+                .addScalar("time", StandardBasicTypes.TIMESTAMP)
+                .setParameter("id", id)
+                .setParameter("newsId", comment.getNewsId())
+                .setParameter("username", comment.getUsername())
+                .setParameter("text", comment.getText())
+                .getResultList();
+
+        return rows.stream().findFirst().map(row -> new Update((Long) row[0], (Date) row[1]));
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        String sql = deleteStatement();
+
+        if (sql == null) {
+            return removeWithSelect(id);
+        }
+
+        // The scalars make the rows typed, NativeQuery is only unwrapped raw
+        @SuppressWarnings("unchecked")
+        List<Long> rows = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("news_id", StandardBasicTypes.LONG)
+                .setParameter("id", id)
+                .getResultList();
+
+        return rows.stream().findFirst();
+    }
+
+    private Optional<Update> updateWithSelect(Long id, CommentDto comment) {
+        Optional<Update> previous = entityManager.createQuery(
+                        "select c.newsId, c.time from Comment c where c.id = :id", Object[].class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(row -> new Update((Long) row[0], (Date) row[1]));
+
+        previous.ifPresent(update -> entityManager.createQuery(
+                        "update Comment c set c.newsId = :newsId, c.username = :username, c.text = :text"
+                                + " where c.id = :id")
+                .setParameter("id", id)
+                .setParameter("newsId", comment.getNewsId())
+                .setParameter("username", comment.getUsername())
+                .setParameter("text", comment.getText())
+                .executeUpdate());
+
+        return previous;
+    }
+
+    private Optional<Long> removeWithSelect(Long id) {
+        Optional<Long> previous = entityManager.createQuery(
+                        "select c.newsId from Comment c where c.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+
+        previous.ifPresent(newsId -> entityManager.createQuery("delete from Comment c where c.id = :id")
+                .setParameter("id", id)
+                .executeUpdate());
+
+        return previous;
+    }
+
+    private String updateStatement() {
+        if (dialect instanceof PostgreSQLDialect) {
+            return POSTGRES_UPDATE;
+        }
+
+        return (dialect instanceof H2Dialect) ? H2_UPDATE : null;
+    }
+
+    private String deleteStatement() {
+        if (dialect instanceof PostgreSQLDialect) {
+            return POSTGRES_DELETE;
+        }
+
+        return (dialect instanceof H2Dialect) ? H2_DELETE : null;
+    }
+}
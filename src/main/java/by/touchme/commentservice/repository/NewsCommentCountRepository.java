@@ -0,0 +1,35 @@
+package by.touchme.commentservice.repository;
+
+import by.touchme.commentservice.entity.NewsCommentCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+@Repository
+public interface NewsCommentCountRepository extends JpaRepository<NewsCommentCount, Long> {
+
+    /**
+     * Adds to the count in the database, concurrent changes of the same news are not lost.
+     *
+     * @return number of updated rows, 0 if the news has no counter yet
+     */
+    @Modifying
+    @Query("update NewsCommentCount c set c.commentCount = c.commentCount + :delta where c.newsId = :newsId")
+    int add(@Param("newsId") Long newsId, @Param("delta") long delta);
+
+    /**
+     * Adds to the count and lowers the time of the first comment to the given time if it is earlier.
+     *
+     * @return number of updated rows, 0 if the news has no counter yet
+     */
+    @Modifying
+    @Query("update NewsCommentCount c set c.commentCount = c.commentCount + :delta,"
+            + " c.firstCommentTime = case when c.firstCommentTime is null or c.firstCommentTime > :time"
+            + " then :time else c.firstCommentTime end"
+            + " where c.newsId = :newsId")
+    int add(@Param("newsId") Long newsId, @Param("delta") long delta, @Param("time") Date time);
+}
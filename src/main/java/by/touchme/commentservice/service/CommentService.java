@@ -1,9 +1,18 @@
 package by.touchme.commentservice.service;
 
+import by.touchme.commentservice.dto.BulkResultDto;
 import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.CursorPageDto;
 import by.touchme.commentservice.dto.PageDto;
 import by.touchme.commentservice.dto.SearchDto;
+import by.touchme.commentservice.dto.SliceDto;
+import by.touchme.commentservice.export.CommentExport;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 public interface CommentService {
     CommentDto getById(Long id);
@@ -12,10 +21,20 @@ public interface CommentService {
 
     PageDto<CommentDto> getPage(Pageable pageable);
 
+    CommentExport export(SearchDto search, Sort sort);
+
     PageDto<CommentDto> getPageByNewsId(Long newsId, Pageable pageable);
 
+    CursorPageDto<CommentDto> getPageByNewsId(Long newsId, String after, int limit);
+
+    SliceDto<CommentDto> getSliceByNewsId(Long newsId, Pageable pageable);
+
+    Map<Long, List<CommentDto>> getLatestByNewsIds(List<Long> newsIds, int limit);
+
     CommentDto create(CommentDto comment);
 
+    BulkResultDto createAll(Iterator<CommentDto> comments, String username);
+
     CommentDto updateById(Long id, CommentDto comment);
 
     void deleteById(Long id);
@@ -0,0 +1,23 @@
+package by.touchme.commentservice.service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+public interface NewsCommentCountService {
+    void add(Long newsId, long delta);
+
+    /**
+     * @param time time of the earliest of the added comments
+     */
+    void add(Long newsId, long delta, Date time);
+
+    long getCount(Long newsId);
+
+    /**
+     * @return lower bound of the times of the comments of the news, null if unknown
+     */
+    Date getFirstCommentTime(Long newsId);
+
+    Map<Long, Long> getCounts(Collection<Long> newsIds);
+}
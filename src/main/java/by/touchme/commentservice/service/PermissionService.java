@@ -4,8 +4,11 @@ import by.touchme.commentservice.dto.AclEntity;
 import org.springframework.security.acls.model.Permission;
 import org.springframework.security.acls.model.Sid;
 
+import java.util.List;
+
 public interface PermissionService {
     void addPermissionForUser(AclEntity targetObj, Permission permission, String username);
     void addPermissionForAuthority(AclEntity targetObj, Permission permission, String authority);
     void addPermissionForSid(AclEntity targetObj, Permission permission, Sid sid);
+    void addPermissionsForUser(List<? extends AclEntity> targetObjs, List<Permission> permissions, String username);
 }
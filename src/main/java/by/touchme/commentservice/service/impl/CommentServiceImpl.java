@@ -1,118 +1,444 @@
 package by.touchme.commentservice.service.impl;
 
-import by.touchme.commentservice.criteria.SearchCriteria;
+import by.touchme.commentservice.cache.CacheGenerations;
+import by.touchme.commentservice.criteria.CommentCursor;
+import by.touchme.commentservice.datasource.ReadFromPrimary;
+import by.touchme.commentservice.dto.BulkResultDto;
 import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.CursorPageDto;
 import by.touchme.commentservice.dto.PageDto;
 import by.touchme.commentservice.dto.SearchDto;
+import by.touchme.commentservice.dto.SliceDto;
 import by.touchme.commentservice.entity.Comment;
 import by.touchme.commentservice.exception.CommentNotFoundException;
+import by.touchme.commentservice.export.CommentExport;
+import by.touchme.commentservice.fulltext.CommentTrigramIndex;
 import by.touchme.commentservice.mapper.CommentMapper;
 import by.touchme.commentservice.repository.CommentRepository;
+import by.touchme.commentservice.repository.CommentWriteRepository;
 import by.touchme.commentservice.service.CommentService;
-import by.touchme.commentservice.specification.CommentSpecification;
+import by.touchme.commentservice.service.NewsCommentCountService;
+import by.touchme.commentservice.service.PermissionService;
+import by.touchme.commentservice.specification.CommentCriteriaCompiler;
+import by.touchme.commentservice.specification.SearchQuery;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.model.Permission;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Slf4j
 @Service
 public class CommentServiceImpl implements CommentService {
+    private static final int MAX_CURSOR_LIMIT = 100;
+    private static final int MAX_LATEST_LIMIT = 20;
+    private static final String COMMENTS_CACHE = "comments";
+    private static final List<Permission> OWNER_PERMISSIONS = List.of(BasePermission.DELETE, BasePermission.WRITE);
+
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
+    private final CacheGenerations newsGenerations;
+    private final NewsCommentCountService newsCommentCountService;
+    private final Optional<CommentTrigramIndex> trigramIndex;
+    private final CommentCriteriaCompiler criteriaCompiler;
+    private final PermissionService permissionService;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+
+    /**
+     * Number of comments inserted per transaction by the bulk import.
+     */
+    @Value("${bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    /**
+     * Number of rows the driver fetches per round-trip during an export.
+     */
+    @Value("${export.fetch-size:1000}")
+    private int exportFetchSize;
 
-    @Cacheable(cacheNames = "comments", key = "#id")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = "comments", key = "#id", sync = true)
     @Override
     public CommentDto getById(Long id) {
         log.info("Get comment with id = {}", id);
-        return commentMapper.modelToDto(
-                commentRepository
-                        .findById(id)
-                        .orElseThrow(() -> new CommentNotFoundException(id))
-        );
+        return commentRepository
+                .findDtoById(id)
+                .orElseThrow(() -> new CommentNotFoundException(id));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public PageDto<CommentDto> getPageByCriteria(SearchDto search, Pageable pageable) {
         log.info("Get comment page ({}) by criteria {}", pageable, search);
 
-        List<SearchCriteria> criteriaList = search.getCriteriaList();
+        return new PageDto<>(commentRepository.findAll(criteriaCompiler.compile(search, pageable.getSort()), pageable));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PageDto<CommentDto> getPage(Pageable pageable) {
+        log.info("Get comment page ({})", pageable);
 
-        Specification<Comment> specification = null;
+        return new PageDto<>(commentRepository.findAllDto(pageable));
+    }
+
+    /**
+     * Compiles the search right away, so invalid criteria are answered before the response starts.
+     * The export itself runs later in a read-only transaction of its own, writing every comment
+     * as soon as it is read.
+     */
+    @Override
+    public CommentExport export(SearchDto search, Sort sort) {
+        log.info("Export comments ({}) by criteria {}", sort, search);
+        SearchQuery query = criteriaCompiler.compile(search, sort);
 
-        if (!criteriaList.isEmpty()) {
-            specification = new CommentSpecification(criteriaList.get(0));
-            for (int idx = 1; idx < criteriaList.size(); idx++) {
-                SearchCriteria criteria = criteriaList.get(idx);
-                specification = Specification.where(specification).and(new CommentSpecification(criteria));
+        return writer -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<CommentDto> comments = commentRepository.stream(query, exportFetchSize)) {
+                        Iterator<CommentDto> iterator = comments.iterator();
+
+                        while (iterator.hasNext()) {
+                            writer.write(iterator.next());
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
             }
-        }
+        };
+    }
 
-        Page<Comment> page = commentRepository.findAll(specification, pageable);
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = "newsCommentPages", keyGenerator = "newsCommentPageKeyGenerator", sync = true)
+    @Override
+    public PageDto<CommentDto> getPageByNewsId(Long newsId, Pageable pageable) {
+        log.info("Get comment page ({}) with news_id = {}", pageable, newsId);
+        Slice<CommentDto> slice = commentRepository.findDtoSliceByNewsId(newsId, firstCommentTime(newsId), pageable);
 
-        return new PageDto<>(page.map(commentMapper::modelToDto));
+        // The total comes from the counter of the news instead of a count query
+        return new PageDto<>(new PageImpl<>(slice.getContent(), pageable, newsCommentCountService.getCount(newsId)));
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public PageDto<CommentDto> getPage(Pageable pageable) {
-        log.info("Get comment page ({})", pageable);
-        Page<Comment> page = commentRepository.findAll(pageable);
+    public SliceDto<CommentDto> getSliceByNewsId(Long newsId, Pageable pageable) {
+        log.info("Get comment slice ({}) with news_id = {}", pageable, newsId);
 
-        return new PageDto<>(page.map(commentMapper::modelToDto));
+        return new SliceDto<>(commentRepository.findDtoSliceByNewsId(newsId, firstCommentTime(newsId), pageable));
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public PageDto<CommentDto> getPageByNewsId(Long newsId, Pageable pageable) {
-        log.info("Get comment page ({}) with news_id = {}", pageable, newsId);
-        Page<Comment> page = commentRepository.findAllByNewsId(newsId, pageable);
+    public CursorPageDto<CommentDto> getPageByNewsId(Long newsId, String after, int limit) {
+        log.info("Get comment page (after = {}, limit = {}) with news_id = {}", after, limit, newsId);
 
-        return new PageDto<>(page.map(commentMapper::modelToDto));
+        int size = Math.max(1, Math.min(limit, MAX_CURSOR_LIMIT));
+        // One more row tells whether there is a next page, without a count query
+        Pageable pageable = PageRequest.of(0, size + 1);
+
+        List<CommentDto> comments;
+
+        if (after == null || after.isBlank()) {
+            comments = commentRepository.findDtoByNewsIdOrderByTimeAndId(newsId, firstCommentTime(newsId), pageable);
+        } else {
+            CommentCursor cursor = CommentCursor.decode(after);
+            comments = commentRepository.findDtoByNewsIdAfter(newsId, cursor.getTimestamp(), cursor.getId(), pageable);
+        }
+
+        String next = null;
+
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            next = CommentCursor.of(comments.get(size - 1)).encode();
+        }
+
+        return new CursorPageDto<>(comments, next);
     }
 
+    /**
+     * Selects the identifiers of the latest comments of all news in one query and takes the comments
+     * from the cache of single comments, only the missing ones are read, with a second query, and cached.
+     * A comment deleted in between is left out.
+     */
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Override
+    public Map<Long, List<CommentDto>> getLatestByNewsIds(List<Long> newsIds, int limit) {
+        log.info("Get latest {} comments of news {}", limit, newsIds);
+
+        int size = Math.max(1, Math.min(limit, MAX_LATEST_LIMIT));
+        Set<Long> distinctNewsIds = new LinkedHashSet<>(newsIds);
+        Map<Long, List<Long>> ids = commentRepository.findLatestIdsByNewsIds(distinctNewsIds, size);
+
+        Cache cache = cacheManager.getCache(COMMENTS_CACHE);
+        Map<Long, CommentDto> comments = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        ids.values().stream().flatMap(List::stream).forEach(id -> {
+            CommentDto cached = (cache != null) ? cache.get(id, CommentDto.class) : null;
+
+            if (cached != null) {
+                comments.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        });
+
+        if (!missing.isEmpty()) {
+            commentRepository.findDtoByIdIn(missing).forEach(comment -> {
+                comments.put(comment.getId(), comment);
+
+                if (cache != null) {
+                    cache.putIfAbsent(comment.getId(), comment);
+                }
+            });
+        }
+
+        Map<Long, List<CommentDto>> latest = new LinkedHashMap<>();
+        distinctNewsIds.forEach(newsId -> latest.put(newsId, ids.getOrDefault(newsId, List.of()).stream()
+                .map(comments::get)
+                .filter(Objects::nonNull)
+                .toList()));
+
+        return latest;
+    }
+
+    @Transactional
     @CachePut(cacheNames = "comments", key = "#result.id")
     @Override
     public CommentDto create(CommentDto comment) {
         log.info("Create comment ({})", comment);
-        return commentMapper.modelToDto(
-                commentRepository.save(
-                        commentMapper.dtoToModel(comment)
-                )
+        Comment saved = commentRepository.save(
+                commentMapper.dtoToModel(comment)
         );
+        CommentDto created = commentMapper.modelToDto(saved);
+
+        newsCommentCountService.add(created.getNewsId(), 1, created.getTime());
+        afterCommit(() -> newsGenerations.increment(created.getNewsId()));
+        trigramIndex.ifPresent(index -> afterCommit(() -> index.put(saved)));
+        return created;
     }
 
-    @CachePut(cacheNames = "comments", key = "#id")
+    /**
+     * Imports the comments in transactions of {@code bulk.batch-size} comments, each inserted
+     * with JDBC batches together with its counters and acl entries. Invalid comments are reported
+     * and skipped. A batch violating a constraint is retried comment by comment to find the
+     * offending ones, the import stops at the first comment that cannot be read.
+     */
     @Override
-    public CommentDto updateById(Long id, CommentDto comment) {
-        if (!commentRepository.existsById(id)) {
-            throw new CommentNotFoundException(id);
+    public BulkResultDto createAll(Iterator<CommentDto> comments, String username) {
+        log.info("Import comments of {}", username);
+        BulkResultDto result = new BulkResultDto();
+        List<Pending> batch = new ArrayList<>();
+        int index = 0;
+
+        while (true) {
+            CommentDto comment;
+
+            try {
+                if (!comments.hasNext()) {
+                    break;
+                }
+
+                comment = comments.next();
+            } catch (RuntimeException ex) {
+                result.addFailed(index, HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+                break;
+            }
+
+            Set<ConstraintViolation<CommentDto>> violations = validator.validate(comment);
+
+            if (violations.isEmpty()) {
+                // Identifiers and times are assigned by the service
+                comment.setId(null);
+                comment.setTime(null);
+                batch.add(new Pending(index, comment));
+            } else {
+                result.addFailed(index, HttpStatus.BAD_REQUEST.value(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+
+            if (batch.size() == bulkBatchSize) {
+                createBatch(batch, username, result);
+                batch.clear();
+            }
+
+            index++;
         }
 
+        createBatch(batch, username, result);
+        result.getItems().sort(Comparator.comparingInt(BulkResultDto.Item::getIndex));
+
+        log.info("Imported {} comments of {}, {} failed", result.getCreated(), username, result.getFailed());
+        return result;
+    }
+
+    private void createBatch(List<Pending> batch, String username, BulkResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            List<Comment> saved = transactionTemplate.execute(status -> insertBatch(batch, username));
+
+            for (int i = 0; i < batch.size(); i++) {
+                result.addCreated(batch.get(i).index(), saved.get(i).getId());
+            }
+        } catch (DataIntegrityViolationException ex) {
+            if (batch.size() == 1) {
+                result.addFailed(batch.get(0).index(), HttpStatus.BAD_REQUEST.value(), ex.getMostSpecificCause().getMessage());
+                return;
+            }
+
+            log.debug("Batch of {} comments violates a constraint, retrying one by one", batch.size());
+            batch.forEach(pending -> createBatch(List.of(pending), username, result));
+        }
+    }
+
+    private List<Comment> insertBatch(List<Pending> batch, String username) {
+        List<Comment> saved = commentRepository.insertAll(
+                batch.stream().map(pending -> commentMapper.dtoToModel(pending.comment())).toList()
+        );
+        List<CommentDto> created = commentMapper.toListDto(saved);
+
+        created.stream()
+                .collect(Collectors.groupingBy(CommentDto::getNewsId))
+                .forEach((newsId, comments) -> {
+                    Date firstTime = comments.stream()
+                            .map(CommentDto::getTime)
+                            .min(Comparator.naturalOrder())
+                            .orElse(null);
+
+                    newsCommentCountService.add(newsId, comments.size(), firstTime);
+                    afterCommit(() -> newsGenerations.increment(newsId));
+                });
+        permissionService.addPermissionsForUser(created, OWNER_PERMISSIONS, username);
+        trigramIndex.ifPresent(index -> afterCommit(() -> saved.forEach(index::put)));
+
+        return saved;
+    }
+
+    @Transactional
+    @CachePut(cacheNames = "comments", key = "#id")
+    @Override
+    public CommentDto updateById(Long id, CommentDto comment) {
         comment.setId(id);
 
         log.info("Update comment with id = {} ({})", id, comment);
-        return commentMapper.modelToDto(
-                commentRepository.save(
-                        commentMapper.dtoToModel(comment)
-                )
-        );
+        CommentWriteRepository.Update update = commentRepository.updateById(id, comment)
+                .orElseThrow(() -> new CommentNotFoundException(id));
+        comment.setTime(update.time());
+
+        // The comment may have been moved to another news
+        Long newsId = update.previousNewsId();
+        afterCommit(() -> newsGenerations.increment(newsId));
+        if (!newsId.equals(comment.getNewsId())) {
+            newsCommentCountService.add(newsId, -1);
+            newsCommentCountService.add(comment.getNewsId(), 1, update.time());
+            afterCommit(() -> newsGenerations.increment(comment.getNewsId()));
+        }
+
+        trigramIndex.ifPresent(index -> afterCommit(() -> index.put(commentMapper.dtoToModel(comment))));
+        return comment;
     }
 
+    @Transactional
     @CacheEvict(cacheNames = "comments", key = "#id")
     @Override
     public void deleteById(Long id) {
-        if (!commentRepository.existsById(id)) {
-            throw new CommentNotFoundException(id);
+        log.info("Delete comment with id = {}", id);
+        Long newsId = commentRepository.removeById(id)
+                .orElseThrow(() -> new CommentNotFoundException(id));
+
+        newsCommentCountService.add(newsId, -1);
+        afterCommit(() -> newsGenerations.increment(newsId));
+        trigramIndex.ifPresent(index -> afterCommit(() -> index.remove(id)));
+    }
+
+    /**
+     * Lower bound of the comment times of the news, which lets the database skip the partitions
+     * of older months. The epoch if the news has no comments yet.
+     */
+    private Date firstCommentTime(Long newsId) {
+        Date time = newsCommentCountService.getFirstCommentTime(newsId);
+        return (time != null) ? time : new Date(0);
+    }
+
+    /**
+     * Comment of a bulk import waiting for its batch.
+     *
+     * @param index position of the comment in the input
+     */
+    private record Pending(int index, CommentDto comment) {
+    }
+
+    /**
+     * Runs the action once the change is visible to other transactions, otherwise a
+     * concurrent read could cache the old comments under the new generation of the news.
+     * Nothing is run if the transaction rolls back.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
 
-        log.info("Delete comment with id = {}", id);
-        commentRepository.deleteById(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,90 @@
+package by.touchme.commentservice.service.impl;
+
+import by.touchme.commentservice.entity.NewsCommentCount;
+import by.touchme.commentservice.repository.NewsCommentCountRepository;
+import by.touchme.commentservice.service.NewsCommentCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Slf4j
+@Service
+public class NewsCommentCountServiceImpl implements NewsCommentCountService {
+
+    private final NewsCommentCountRepository newsCommentCountRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional
+    @Override
+    public void add(Long newsId, long delta) {
+        if (newsCommentCountRepository.add(newsId, delta) == 0) {
+            createCounter(newsId);
+            newsCommentCountRepository.add(newsId, delta);
+        }
+    }
+
+    @Transactional
+    @Override
+    public void add(Long newsId, long delta, Date time) {
+        if (newsCommentCountRepository.add(newsId, delta, time) == 0) {
+            createCounter(newsId);
+            newsCommentCountRepository.add(newsId, delta, time);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public long getCount(Long newsId) {
+        return newsCommentCountRepository.findById(newsId)
+                .map(NewsCommentCount::getCommentCount)
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Date getFirstCommentTime(Long newsId) {
+        return newsCommentCountRepository.findById(newsId)
+                .map(NewsCommentCount::getFirstCommentTime)
+                .orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Map<Long, Long> getCounts(Collection<Long> newsIds) {
+        log.info("Get comment counts of news {}", newsIds);
+
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        newsIds.forEach(newsId -> counts.put(newsId, 0L));
+        newsCommentCountRepository.findAllById(counts.keySet())
+                .forEach(count -> counts.put(count.getNewsId(), count.getCommentCount()));
+
+        return counts;
+    }
+
+    /**
+     * Creates the counter of the first comment of a news in its own transaction,
+     * so the insert of a concurrent first comment may win without failing this one.
+     */
+    private void createCounter(Long newsId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> newsCommentCountRepository.saveAndFlush(new NewsCommentCount(newsId, 0, null)));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Comment counter of news {} was created concurrently", newsId);
+        }
+    }
+}
@@ -4,6 +4,10 @@ import by.touchme.commentservice.dto.AclEntity;
 import by.touchme.commentservice.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.domain.PrincipalSid;
@@ -15,6 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -23,6 +32,7 @@ public class PermissionServiceImpl implements PermissionService {
 
     private final MutableAclService aclService;
     private final PlatformTransactionManager transactionManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Override
     public void addPermissionForUser(AclEntity targetObj, Permission permission, String username) {
@@ -54,4 +64,94 @@ public class PermissionServiceImpl implements PermissionService {
             }
         });
     }
+
+    /**
+     * Writes the acls of many new objects of one class with a few batched statements, where
+     * the acl service takes several queries per object. The objects become owned by the user,
+     * the entries are granted to the user in the order of the permissions.
+     * Runs in the transaction of the caller, the acl cache is not touched as it holds no new objects.
+     */
+    @Override
+    public void addPermissionsForUser(List<? extends AclEntity> targetObjs, List<Permission> permissions, String username) {
+        if (targetObjs.isEmpty()) {
+            return;
+        }
+
+        long classId = retrieveOrCreate(
+                "select id from acl_class where class = :class",
+                "insert into acl_class (class) values (:class)",
+                new MapSqlParameterSource("class", targetObjs.get(0).getClass().getName()));
+        long sidId = retrieveOrCreate(
+                "select id from acl_sid where principal = :principal and sid = :sid",
+                "insert into acl_sid (principal, sid) values (:principal, :sid)",
+                new MapSqlParameterSource("principal", true).addValue("sid", username));
+
+        List<String> identities = targetObjs.stream().map(targetObj -> String.valueOf(targetObj.getId())).toList();
+
+        List<Long> objectIds = insertObjectIdentities(classId, identities, sidId);
+        List<SqlParameterSource> entries = new ArrayList<>();
+
+        for (Long objectId : objectIds) {
+            for (int order = 0; order < permissions.size(); order++) {
+                entries.add(new MapSqlParameterSource("object", objectId)
+                        .addValue("order", order)
+                        .addValue("sid", sidId)
+                        .addValue("mask", permissions.get(order).getMask()));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+                "insert into acl_entry (acl_object_identity, ace_order, sid, mask, granting, audit_success, audit_failure)"
+                        + " values (:object, :order, :sid, :mask, true, false, false)",
+                entries.toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Inserts the object identities in one batch and reads their keys back from it,
+     * which spares a query by identity per object.
+     *
+     * @return the keys in the order of the identities
+     */
+    private List<Long> insertObjectIdentities(long classId, List<String> identities, long sidId) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into acl_object_identity (object_id_class, object_id_identity, owner_sid, entries_inheriting)"
+                            + " values (?, ?, ?, true)", new String[]{"id"})) {
+                for (String identity : identities) {
+                    statement.setLong(1, classId);
+                    statement.setString(2, identity);
+                    statement.setLong(3, sidId);
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+
+                List<Long> objectIds = new ArrayList<>(identities.size());
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        objectIds.add(keys.getLong(1));
+                    }
+                }
+
+                if (objectIds.size() != identities.size()) {
+                    throw new IllegalStateException("Expected " + identities.size()
+                            + " object identity keys, the driver returned " + objectIds.size());
+                }
+
+                return objectIds;
+            }
+        });
+    }
+
+    private long retrieveOrCreate(String select, String insert, MapSqlParameterSource parameters) {
+        List<Long> ids = jdbcTemplate.queryForList(select, parameters, Long.class);
+
+        if (ids.isEmpty()) {
+            jdbcTemplate.update(insert, parameters);
+            ids = jdbcTemplate.queryForList(select, parameters, Long.class);
+        }
+
+        return ids.get(0);
+    }
 }
@@ -0,0 +1,525 @@
+package by.touchme.commentservice.specification;
+
+import by.touchme.commentservice.cache.StatisticsCache;
+import by.touchme.commentservice.criteria.SearchCriteria;
+import by.touchme.commentservice.criteria.SearchExpression;
+import by.touchme.commentservice.criteria.SearchOperation;
+import by.touchme.commentservice.dto.SearchDto;
+import by.touchme.commentservice.entity.Comment;
+import by.touchme.commentservice.exception.InvalidSearchCriteriaException;
+import by.touchme.commentservice.fulltext.CommentTrigramIndex;
+import by.touchme.commentservice.fulltext.FullTextFunctionContributor;
+import by.touchme.commentservice.fulltext.FullTextQuery;
+import by.touchme.commentservice.repository.CommentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Compiles the criteria of a search into a {@link SearchQuery}.
+ * <p>
+ * Every key is resolved against the JPA metamodel of {@link Comment} and every value is
+ * converted to the type of its attribute, so {@code id > 9} compares numbers and a time range
+ * compares timestamps instead of strings. Unknown keys and values of the wrong type are
+ * rejected before a query is run.
+ * <p>
+ * The flat criteria list and the expression tree are combined into one tree in negation
+ * normal form: negations are pushed down to the criteria, which take the complementary
+ * operation where there is one. The tree is then simplified: nested groups of the same kind
+ * are flattened, constants are folded, duplicate terms are removed and a group requiring
+ * a criteria and its complement, or two different values of a key, is false. The children
+ * of every group are ordered by their expected selectivity, the ones an index can serve
+ * first, which also makes the tree canonical. Searches that differ only in their values or
+ * order have the same shape and share one {@link SearchPlan} from the bounded plan cache.
+ */
+@Component
+public class CommentCriteriaCompiler {
+
+    /**
+     * Alias of the comment in {@link CommentRepository#COMMENT_DTO}.
+     */
+    private static final String ALIAS = "c";
+
+    /**
+     * Upper bound of the criteria of a search, so a single request cannot build a huge query.
+     */
+    private static final int MAX_CRITERIA = 100;
+
+    private static final Set<SearchOperation> TEXT_OPERATIONS = EnumSet.of(
+            SearchOperation.CONTAINS, SearchOperation.DOES_NOT_CONTAIN,
+            SearchOperation.BEGINS_WITH, SearchOperation.DOES_NOT_BEGIN_WITH,
+            SearchOperation.ENDS_WITH, SearchOperation.DOES_NOT_END_WITH,
+            SearchOperation.MATCHES
+    );
+
+    private static final Set<SearchOperation> RANGE_OPERATIONS = EnumSet.of(
+            SearchOperation.GREATER_THAN, SearchOperation.GREATER_THAN_EQUAL,
+            SearchOperation.LESS_THAN, SearchOperation.LESS_THAN_EQUAL
+    );
+
+    private static final Map<SearchOperation, SearchOperation> COMPLEMENTS = new EnumMap<>(SearchOperation.class);
+
+    static {
+        complement(SearchOperation.EQUAL, SearchOperation.NOT_EQUAL);
+        complement(SearchOperation.CONTAINS, SearchOperation.DOES_NOT_CONTAIN);
+        complement(SearchOperation.BEGINS_WITH, SearchOperation.DOES_NOT_BEGIN_WITH);
+        complement(SearchOperation.ENDS_WITH, SearchOperation.DOES_NOT_END_WITH);
+        complement(SearchOperation.NULL, SearchOperation.NOT_NULL);
+        complement(SearchOperation.GREATER_THAN, SearchOperation.LESS_THAN_EQUAL);
+        complement(SearchOperation.GREATER_THAN_EQUAL, SearchOperation.LESS_THAN);
+    }
+
+    private static final Set<String> INDEXED_KEYS = Set.of("id", "newsId", "time");
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Optional<CommentTrigramIndex> trigramIndex;
+    private final StatisticsCache planCache;
+
+    public CommentCriteriaCompiler(EntityManager entityManager, ObjectMapper objectMapper,
+                                   Optional<CommentTrigramIndex> trigramIndex,
+                                   @Qualifier("searchPlanCache") StatisticsCache planCache) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.trigramIndex = trigramIndex;
+        this.planCache = planCache;
+    }
+
+    /**
+     * @throws InvalidSearchCriteriaException if a criteria or the sort cannot be applied
+     */
+    public SearchQuery compile(SearchDto search, Sort sort) {
+        EntityType<Comment> entity = entityManager.getMetamodel().entity(Comment.class);
+        List<Node> terms = new ArrayList<>();
+        int[] criteriaCount = new int[1];
+
+        if (search.getCriteriaList() != null) {
+            for (SearchCriteria criteria : search.getCriteriaList()) {
+                terms.add(criteria(entity, criteria, false, criteriaCount));
+            }
+        }
+
+        if (search.getExpression() != null) {
+            terms.add(expression(entity, search.getExpression(), false, criteriaCount));
+        }
+
+        for (Sort.Order order : sort) {
+            attribute(entity, order.getProperty());
+        }
+
+        Node root = simplify(new Group(true, terms));
+
+        if (root instanceof Constant constant && !constant.value()) {
+            return SearchQuery.nothing();
+        }
+
+        String shape = shape(root) + "|" + sort;
+        List<Object> parameters = new ArrayList<>();
+        parameters(root, parameters);
+
+        SearchPlan plan = planCache.get(shape, () -> plan(root, sort));
+        return new SearchQuery(plan, parameters, false);
+    }
+
+    /**
+     * Builds the node of an expression, negated if the expression is below an odd number of nots.
+     */
+    private Node expression(EntityType<Comment> entity, SearchExpression expression, boolean negated, int[] count) {
+        int set = (expression.getCriteria() != null ? 1 : 0) + (expression.getAnd() != null ? 1 : 0)
+                + (expression.getOr() != null ? 1 : 0) + (expression.getNot() != null ? 1 : 0);
+
+        if (set != 1) {
+            throw new InvalidSearchCriteriaException("expression",
+                    "exactly one of criteria, and, or, not is required");
+        }
+
+        if (expression.getCriteria() != null) {
+            return criteria(entity, expression.getCriteria(), negated, count);
+        }
+
+        if (expression.getNot() != null) {
+            return expression(entity, expression.getNot(), !negated, count);
+        }
+
+        boolean and = expression.getAnd() != null;
+        List<Node> children = new ArrayList<>();
+
+        for (SearchExpression child : and ? expression.getAnd() : expression.getOr()) {
+            if (child == null) {
+                throw new InvalidSearchCriteriaException("expression", "empty expression");
+            }
+
+            children.add(expression(entity, child, negated, count));
+        }
+
+        // De Morgan, not (a and b) is (not a or not b)
+        return new Group(and != negated, children);
+    }
+
+    private Node criteria(EntityType<Comment> entity, SearchCriteria criteria, boolean negated, int[] count) {
+        if (++count[0] > MAX_CRITERIA) {
+            throw new InvalidSearchCriteriaException("expression", "more than " + MAX_CRITERIA + " criteria");
+        }
+
+        SearchCriteria converted = convert(entity, criteria);
+        Leaf leaf = Leaf.of(converted.getKey(), converted.getOperation(), parameter(converted));
+
+        if (negated) {
+            return leaf.negate();
+        }
+
+        // The candidates of the trigram index are a superset of the matches looked up by the primary key
+        Set<Long> candidates = trigramIndex.map(index -> index.candidates(converted)).orElse(null);
+
+        if (candidates != null) {
+            return new Group(true, List.of(Leaf.of("id", null, candidates), leaf));
+        }
+
+        return leaf;
+    }
+
+    /**
+     * Flattens, folds, deduplicates and orders the tree. The tree is in negation normal form,
+     * so a group that is never true can be replaced by false in the three-valued logic of SQL.
+     */
+    private static Node simplify(Node node) {
+        if (node instanceof Leaf leaf) {
+            return leaf.matchesNothing() ? new Constant(false) : leaf;
+        }
+
+        if (!(node instanceof Group group)) {
+            return node;
+        }
+
+        Set<Node> children = new LinkedHashSet<>();
+
+        for (Node child : group.children()) {
+            Node simplified = simplify(child);
+
+            if (simplified instanceof Constant constant) {
+                // true and x is x, false or x is x, otherwise the whole group is decided
+                if (constant.value() == group.and()) {
+                    continue;
+                }
+
+                return constant;
+            }
+
+            if (simplified instanceof Group nested && nested.and() == group.and()) {
+                children.addAll(nested.children());
+            } else {
+                children.add(simplified);
+            }
+        }
+
+        if (children.isEmpty()) {
+            return new Constant(group.and());
+        }
+
+        if (group.and() && contradicts(children)) {
+            return new Constant(false);
+        }
+
+        if (children.size() == 1) {
+            return children.iterator().next();
+        }
+
+        List<Node> ordered = new ArrayList<>(children);
+        ordered.sort(Comparator.comparingInt(CommentCriteriaCompiler::cost)
+                .thenComparing(CommentCriteriaCompiler::shape));
+        return new Group(group.and(), ordered);
+    }
+
+    /**
+     * @return whether all of the terms can never hold together
+     */
+    private static boolean contradicts(Set<Node> terms) {
+        Map<String, Object> equalities = new HashMap<>();
+
+        for (Node term : terms) {
+            if (!(term instanceof Leaf leaf)) {
+                continue;
+            }
+
+            if (terms.contains(leaf.negate())) {
+                return true;
+            }
+
+            if (leaf.operation() == SearchOperation.EQUAL && !leaf.negated()) {
+                Object other = equalities.putIfAbsent(leaf.key(), leaf.parameter());
+
+                if (other != null && !other.equals(leaf.parameter())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the lower, the fewer rows the node is expected to leave; a conjunction is as
+     * selective as its best term, a disjunction as its worst
+     */
+    private static int cost(Node node) {
+        if (node instanceof Leaf leaf) {
+            return leaf.rank();
+        }
+
+        if (node instanceof Group group) {
+            return group.children().stream()
+                    .mapToInt(CommentCriteriaCompiler::cost)
+                    .reduce(group.and() ? Math::min : Math::max)
+                    .orElse(0);
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the node without the values, equal for searches that share a plan
+     */
+    private static String shape(Node node) {
+        if (node instanceof Leaf leaf) {
+            return (leaf.negated() ? "not " : "") + leaf.key() + ":" + leaf.operation();
+        }
+
+        if (node instanceof Group group) {
+            StringJoiner joiner = new StringJoiner(",", group.and() ? "and(" : "or(", ")");
+            group.children().forEach(child -> joiner.add(shape(child)));
+            return joiner.toString();
+        }
+
+        return String.valueOf(((Constant) node).value());
+    }
+
+    private static void parameters(Node node, List<Object> parameters) {
+        if (node instanceof Leaf leaf && leaf.parameter() != null) {
+            parameters.add(leaf.parameter());
+        } else if (node instanceof Group group) {
+            group.children().forEach(child -> parameters(child, parameters));
+        }
+    }
+
+    private SearchPlan plan(Node root, Sort sort) {
+        StringBuilder where = new StringBuilder();
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "").setEmptyValue("");
+
+        if (!(root instanceof Constant)) {
+            where.append(" where ");
+            render(root, where, orderBy, sort, new int[1]);
+        }
+
+        for (Sort.Order order : sort) {
+            orderBy.add(ALIAS + "." + order.getProperty() + (order.isAscending() ? " asc" : " desc"));
+        }
+
+        return new SearchPlan(
+                CommentRepository.COMMENT_DTO + where + orderBy,
+                "select count(" + ALIAS + ") from Comment " + ALIAS + where
+        );
+    }
+
+    /**
+     * Renders the node, numbering the parameters in the order of {@link #parameters(Node, List)}.
+     */
+    private static void render(Node node, StringBuilder jpql, StringJoiner orderBy, Sort sort, int[] next) {
+        if (node instanceof Group group) {
+            jpql.append('(');
+
+            for (int i = 0; i < group.children().size(); i++) {
+                jpql.append(i == 0 ? "" : group.and() ? " and " : " or ");
+                render(group.children().get(i), jpql, orderBy, sort, next);
+            }
+
+            jpql.append(')');
+            return;
+        }
+
+        Leaf leaf = (Leaf) node;
+        String path = ALIAS + "." + leaf.key();
+        String parameter = (leaf.parameter() != null) ? ":p" + next[0]++ : null;
+        jpql.append(leaf.jpql(path, parameter));
+
+        // Most relevant first, a requested sort replaces this order
+        if (leaf.operation() == SearchOperation.MATCHES && !leaf.negated() && sort.isUnsorted()
+                && orderBy.length() == 0) {
+            orderBy.add(FullTextFunctionContributor.RANK + "(" + path + ", " + parameter + ") desc");
+        }
+    }
+
+    private SearchCriteria convert(EntityType<Comment> entity, SearchCriteria criteria) {
+        String key = criteria.getKey();
+        SearchOperation operation = criteria.getOperation();
+
+        if (key == null || operation == null) {
+            throw new InvalidSearchCriteriaException(key, "key and operation are required");
+        }
+
+        Class<?> type = attribute(entity, key).getJavaType();
+
+        if (operation == SearchOperation.NULL || operation == SearchOperation.NOT_NULL) {
+            return criteria;
+        }
+
+        if (criteria.getValue() == null) {
+            throw new InvalidSearchCriteriaException(key, "value is required for " + operation);
+        }
+
+        if (TEXT_OPERATIONS.contains(operation) && type != String.class) {
+            throw new InvalidSearchCriteriaException(key, operation + " applies to text only");
+        }
+
+        if (RANGE_OPERATIONS.contains(operation) && !Comparable.class.isAssignableFrom(type)) {
+            throw new InvalidSearchCriteriaException(key, operation + " applies to comparable values only");
+        }
+
+        SearchCriteria converted = new SearchCriteria();
+        converted.setKey(key);
+        converted.setOperation(operation);
+
+        try {
+            converted.setValue(objectMapper.convertValue(criteria.getValue(), type));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidSearchCriteriaException(key, "value is not a " + type.getSimpleName());
+        }
+
+        return converted;
+    }
+
+    private static Attribute<? super Comment, ?> attribute(EntityType<Comment> entity, String key) {
+        return entity.getAttributes().stream()
+                .filter(candidate -> candidate.getName().equals(key))
+                .findFirst()
+                .orElseThrow(() -> new InvalidSearchCriteriaException(key, "unknown key"));
+    }
+
+    /**
+     * @return the value bound to the parameter of the criteria, null if it has none
+     */
+    private static Object parameter(SearchCriteria criteria) {
+        Object value = criteria.getValue();
+
+        return switch (criteria.getOperation()) {
+            case CONTAINS, DOES_NOT_CONTAIN -> "%" + lower(value) + "%";
+            case BEGINS_WITH, DOES_NOT_BEGIN_WITH -> lower(value) + "%";
+            case ENDS_WITH, DOES_NOT_END_WITH -> "%" + lower(value);
+            case MATCHES -> FullTextQuery.of(value.toString());
+            case NULL, NOT_NULL -> null;
+            default -> value;
+        };
+    }
+
+    private static String lower(Object value) {
+        return value.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void complement(SearchOperation operation, SearchOperation complement) {
+        COMPLEMENTS.put(operation, complement);
+        COMPLEMENTS.put(complement, operation);
+    }
+
+    private sealed interface Node permits Leaf, Group, Constant {
+    }
+
+    /**
+     * A conjunction or disjunction of nodes.
+     */
+    private record Group(boolean and, List<Node> children) implements Node {
+    }
+
+    private record Constant(boolean value) implements Node {
+    }
+
+    /**
+     * A criteria in its canonical form. The operation is null for the candidates of the
+     * trigram index; negated is only set for operations without a complement.
+     */
+    private record Leaf(int rank, String key, SearchOperation operation, Object parameter, boolean negated)
+            implements Node {
+
+        static Leaf of(String key, SearchOperation operation, Object parameter) {
+            return new Leaf(rank(key, operation, false), key, operation, parameter, false);
+        }
+
+        Leaf negate() {
+            SearchOperation complement = COMPLEMENTS.get(operation);
+
+            if (complement != null) {
+                return new Leaf(rank(key, complement, false), key, complement, parameter, false);
+            }
+
+            return new Leaf(rank(key, operation, !negated), key, operation, parameter, !negated);
+        }
+
+        boolean matchesNothing() {
+            return !negated && ((operation == null && ((Set<?>) parameter).isEmpty())
+                    || (operation == SearchOperation.MATCHES && parameter.toString().isEmpty()));
+        }
+
+        String jpql(String path, String parameter) {
+            String jpql = (operation == null) ? path + " in " + parameter : switch (operation) {
+                case CONTAINS, BEGINS_WITH, ENDS_WITH -> "lower(" + path + ") like " + parameter;
+                case DOES_NOT_CONTAIN, DOES_NOT_BEGIN_WITH, DOES_NOT_END_WITH ->
+                        "lower(" + path + ") not like " + parameter;
+                case EQUAL -> path + " = " + parameter;
+                case NOT_EQUAL -> path + " <> " + parameter;
+                case NULL -> path + " is null";
+                case NOT_NULL -> path + " is not null";
+                case GREATER_THAN -> path + " > " + parameter;
+                case GREATER_THAN_EQUAL -> path + " >= " + parameter;
+                case LESS_THAN -> path + " < " + parameter;
+                case LESS_THAN_EQUAL -> path + " <= " + parameter;
+                case MATCHES -> FullTextFunctionContributor.MATCH + "(" + path + ", " + parameter + ") = true";
+            };
+
+            return negated ? "not (" + jpql + ")" : jpql;
+        }
+
+        /**
+         * @return the lower, the fewer rows the criteria is expected to leave
+         */
+        private static int rank(String key, SearchOperation operation, boolean negated) {
+            if (operation == null) {
+                return 0;
+            }
+
+            boolean indexed = INDEXED_KEYS.contains(key);
+
+            if (negated) {
+                return 6;
+            }
+
+            if (operation == SearchOperation.EQUAL) {
+                return indexed ? 1 : 3;
+            }
+
+            if (RANGE_OPERATIONS.contains(operation)) {
+                return indexed ? 2 : 4;
+            }
+
+            return switch (operation) {
+                case MATCHES -> 2;
+                case CONTAINS, BEGINS_WITH, ENDS_WITH -> 5;
+                default -> 6;
+            };
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package by.touchme.commentservice.specification;
+
+/**
+ * Parameterized JPQL of one shape of search criteria: the keys, operations and sort,
+ * but not the values. The parameters are named {@code p0, p1, ...} in the order of the
+ * canonical criteria, so equal shapes share the query strings and with them the
+ * query interpretation cache of Hibernate and the prepared statements of the driver.
+ *
+ * @param selectQuery query of the comments, projected into dtos
+ * @param countQuery  query of their number, without the order
+ */
+public record SearchPlan(String selectQuery, String countQuery) {
+}
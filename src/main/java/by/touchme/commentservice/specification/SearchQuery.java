@@ -0,0 +1,17 @@
+package by.touchme.commentservice.specification;
+
+import java.util.List;
+
+/**
+ * A cached {@link SearchPlan} with the parameter values of one search.
+ *
+ * @param plan       shared plan of the shape
+ * @param parameters values of the parameters {@code p0, p1, ...}
+ * @param empty      whether a criteria is known to match nothing, so no query is needed
+ */
+public record SearchQuery(SearchPlan plan, List<Object> parameters, boolean empty) {
+
+    public static SearchQuery nothing() {
+        return new SearchQuery(null, List.of(), true);
+    }
+}
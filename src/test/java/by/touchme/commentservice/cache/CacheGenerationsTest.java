@@ -0,0 +1,68 @@
+package by.touchme.commentservice.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class CacheGenerationsTest {
+
+    @DisplayName("JUnit test for CacheGenerations current")
+    @Test
+    void current() {
+        CacheGenerations generations = new CacheGenerations(new LRUCache("generations", 3));
+
+        // Assert the generation is stable until incremented
+        Assertions.assertEquals(generations.current(1L), generations.current(1L));
+    }
+
+    @DisplayName("JUnit test for CacheGenerations increment")
+    @Test
+    void increment() {
+        CacheGenerations generations = new CacheGenerations(new LRUCache("generations", 3));
+        Cache pages = new LRUCache("pages", 10);
+
+        pages.put(1L + ":" + generations.current(1L) + ":0", "page");
+        pages.put(2L + ":" + generations.current(2L) + ":0", "page");
+
+        // Change the first group
+        generations.increment(1L);
+
+        // Assert only the pages of the first group are unreachable
+        Assertions.assertNull(pages.get(1L + ":" + generations.current(1L) + ":0"));
+        Assertions.assertNotNull(pages.get(2L + ":" + generations.current(2L) + ":0"));
+    }
+
+    @DisplayName("JUnit test for CacheGenerations restartAfterEviction")
+    @Test
+    void restartAfterEviction() {
+        Cache cache = new LRUCache("generations", 1);
+        CacheGenerations generations = new CacheGenerations(cache);
+        long generation = generations.current(1L);
+
+        // Evict the counter of the first group
+        generations.current(2L);
+
+        // Assert the counter does not start at a generation that was used
+        Assertions.assertNull(cache.get(1L));
+        Assertions.assertNotEquals(generation, generations.current(1L));
+    }
+
+    @DisplayName("JUnit test for CacheGenerations readIntegerGeneration")
+    @Test
+    void readIntegerGeneration() {
+        Cache cache = new LRUCache("generations", 3);
+        cache.put(1L, 5);
+
+        // Assert a generation read back as an integer by a JSON serializer
+        CacheGenerations generations = new CacheGenerations(cache);
+        Assertions.assertEquals(5, generations.current(1L));
+        generations.increment(1L);
+        Assertions.assertEquals(6, generations.current(1L));
+    }
+}
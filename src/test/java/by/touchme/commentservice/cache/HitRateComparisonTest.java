@@ -0,0 +1,80 @@
+package by.touchme.commentservice.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.SplittableRandom;
+
+/**
+ * Trace-driven comparison of the local cache policies.
+ * The trace mimics the comment traffic: a few viral news threads that change over
+ * time, read with a Zipf distribution, mixed with a long tail of one-off reads.
+ */
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class HitRateComparisonTest {
+
+    private static final int CAPACITY = 500;
+    private static final int REQUESTS = 1_000_000;
+
+    @DisplayName("JUnit test for TinyLFUCache hit rate compared to LRUCache and LFUCache")
+    @Test
+    void compareHitRates() {
+        long[] trace = trace();
+
+        double lru = hitRate(new LRUCache("lru", CAPACITY), trace);
+        double lfu = hitRate(new LFUCache("lfu", CAPACITY), trace);
+        double agingLfu = hitRate(new LFUCache("lfu", CAPACITY, 10L * CAPACITY), trace);
+        double tinyLfu = hitRate(new TinyLFUCache("tinylfu", CAPACITY), trace);
+
+        System.out.printf("Hit rates: lru = %.4f, lfu = %.4f, lfu with aging = %.4f, tinylfu = %.4f%n",
+                lru, lfu, agingLfu, tinyLfu);
+
+        Assertions.assertTrue(tinyLfu > lru);
+        Assertions.assertTrue(tinyLfu > lfu);
+        Assertions.assertTrue(tinyLfu > agingLfu);
+    }
+
+    private static double hitRate(Cache cache, long[] trace) {
+        long hits = 0;
+
+        for (long key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+
+        return (double) hits / trace.length;
+    }
+
+    private static long[] trace() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] trace = new long[REQUESTS];
+        long oneOff = 1L << 40;
+
+        for (int i = 0; i < REQUESTS; i++) {
+            // The popular threads shift every 100k requests
+            long phase = (long) (i / 100_000) << 20;
+
+            if (random.nextInt(10) < 6) {
+                trace[i] = phase + zipf(random, 5_000);
+            } else {
+                trace[i] = oneOff++;
+            }
+        }
+
+        return trace;
+    }
+
+    private static long zipf(SplittableRandom random, int size) {
+        // Inverse transform for a Zipf-like distribution with exponent ~1
+        return (long) Math.pow(size, random.nextDouble());
+    }
+}
@@ -114,6 +114,143 @@ public class LFUCacheTest {
         Assertions.assertNull(cache.get("key2"));
     }
 
+    @DisplayName("JUnit test for LFUCache deleteLeastRecentOnTie")
+    @Test
+    void deleteLeastRecentOnTie() {
+        Cache cache = new LFUCache("test", 3);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+
+        // Same frequency for all keys, key2 is the least recently used
+        cache.get("key2");
+        cache.get("key3");
+        cache.get("key1");
+
+        // Add new key (and remove key2)
+        cache.put("newKey", "newValue");
+
+        // Assert result
+        Assertions.assertNull(cache.get("key2"));
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+        assertEqualsValueWrapper(cache.get("key3"), "value3");
+        assertEqualsValueWrapper(cache.get("newKey"), "newValue");
+    }
+
+    @DisplayName("JUnit test for LFUCache decayWithAging")
+    @Test
+    void decayWithAging() {
+        Cache agingCache = new LFUCache("test", 2, 8);
+        Cache cache = new LFUCache("test", 2);
+
+        for (Cache c : new Cache[]{agingCache, cache}) {
+            c.put("hot", "value");
+
+            // Visit +20 for hot
+            for (int i = 0; i < 20; i++) {
+                c.get("hot");
+            }
+
+            // Churn through keys that are visited only once
+            for (int i = 0; i < 100; i++) {
+                c.put("key" + i, "value" + i);
+                c.get("key" + i);
+            }
+        }
+
+        // Assert the stale hot key decayed only with aging enabled
+        Assertions.assertNull(agingCache.get("hot"));
+        assertEqualsValueWrapper(cache.get("hot"), "value");
+    }
+
+    @DisplayName("JUnit test for LFUCache keepFrequentOnLargeCapacity")
+    @Test
+    void keepFrequentOnLargeCapacity() {
+        LFUCache cache = new LFUCache("test", 100_000);
+
+        for (int i = 0; i < 100_000; i++) {
+            cache.put(i, i);
+        }
+
+        // Visit +1 for even keys
+        for (int i = 0; i < 100_000; i += 2) {
+            cache.get(i);
+        }
+
+        // Add new keys (and remove the odd ones)
+        for (int i = 100_000; i < 150_000; i++) {
+            cache.put(i, i);
+        }
+
+        // Assert result
+        Assertions.assertEquals(100_000, cache.size());
+
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 2 == 0) {
+                assertEqualsValueWrapper(cache.get(i), i);
+            } else {
+                Assertions.assertNull(cache.get(i));
+            }
+        }
+    }
+
+    @DisplayName("JUnit test for LFUCache evictByWeight")
+    @Test
+    void evictByWeight() {
+        LFUCache cache = new LFUCache("test", 100, 10, (key, value) -> value.toString().length(), 0, null, null);
+        cache.put("key1", "12345");
+        cache.put("key2", "12345");
+
+        // Use the first key
+        cache.get("key1");
+
+        // Add key over the maximum weight
+        cache.put("key3", "1");
+
+        // Assert the least frequently used key is evicted
+        assertEqualsValueWrapper(cache.get("key1"), "12345");
+        Assertions.assertNull(cache.get("key2"));
+        assertEqualsValueWrapper(cache.get("key3"), "1");
+        Assertions.assertEquals(6, cache.weightedSize());
+
+        // Update a key with a heavier value
+        cache.put("key1", "1234567890");
+
+        // Assert result
+        Assertions.assertNull(cache.get("key3"));
+        Assertions.assertEquals(10, cache.weightedSize());
+    }
+
+    @DisplayName("JUnit test for LFUCache putWithoutCapacity")
+    @Test
+    void putWithoutCapacity() {
+        LFUCache cache = new LFUCache("test", 0);
+        cache.put("key", "value");
+
+        // Assert nothing is cached
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @DisplayName("JUnit test for LFUCache putOverMaximumWeight")
+    @Test
+    void putOverMaximumWeight() {
+        LFUCache cache = new LFUCache("test", 100, 10, (key, value) -> value.toString().length(), 0, null, null);
+        cache.put("key1", "12345");
+        cache.put("key2", "12345");
+
+        // Add and update keys heavier than the whole cache
+        cache.put("key3", "12345678901");
+        cache.put("key2", "12345678901");
+
+        // Assert only the updated key is dropped and the other entries stay
+        Assertions.assertNull(cache.get("key3"));
+        Assertions.assertNull(cache.get("key2"));
+        assertEqualsValueWrapper(cache.get("key1"), "12345");
+        Assertions.assertEquals(5, cache.weightedSize());
+        Assertions.assertEquals(2, cache.stats().rejectionCount());
+    }
+
     void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
         Assertions.assertNotNull(vw);
         Assertions.assertEquals(vw.get(), value);
@@ -8,6 +8,17 @@ import org.springframework.cache.Cache;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 @ActiveProfiles(profiles = "test")
 @ExtendWith(SpringExtension.class)
 public class LRUCacheTest {
@@ -114,6 +125,270 @@ public class LRUCacheTest {
         Assertions.assertNull(cache.get("key2"));
     }
 
+    @DisplayName("JUnit test for LRUCache keepLastRecentlyUsed")
+    @Test
+    void keepLastRecentlyUsed() {
+        LRUCache cache = new LRUCache("test", 100);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        // Assert only the last 100 keys are kept
+        Assertions.assertEquals(100, cache.size());
+        Assertions.assertNull(cache.get(899));
+
+        for (int i = 900; i < 1000; i++) {
+            assertEqualsValueWrapper(cache.get(i), "value" + i);
+        }
+    }
+
+    @DisplayName("JUnit test for LRUCache concurrentAccess")
+    @Test
+    void concurrentAccess() throws Exception {
+        LRUCache cache = new LRUCache("test", 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    for (int i = 0; i < 100_000; i++) {
+                        int key = random.nextInt(256);
+
+                        if (random.nextInt(4) == 0) {
+                            cache.put(key, "value" + key);
+                        } else {
+                            Cache.ValueWrapper vw = cache.get(key);
+
+                            if (vw != null) {
+                                Assertions.assertEquals("value" + key, vw.get());
+                            }
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert the capacity is respected and the cache is still usable
+        Assertions.assertTrue(cache.size() <= 64);
+
+        cache.put("key", "value");
+        assertEqualsValueWrapper(cache.get("key"), "value");
+    }
+
+    @DisplayName("JUnit test for LRUCache getWithType")
+    @Test
+    void getWithType() {
+        Cache cache = new LRUCache("test", 3);
+        cache.put("key", "value");
+
+        Assertions.assertEquals("value", cache.get("key", String.class));
+        Assertions.assertNull(cache.get("missing", String.class));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("key", Integer.class));
+    }
+
+    @DisplayName("JUnit test for LRUCache loadValueOnce")
+    @Test
+    void loadValueOnce() throws Exception {
+        Cache cache = new LRUCache("test", 3);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    release.await();
+                    return "value";
+                })));
+            }
+
+            // Let the other callers pile up behind the running loader
+            started.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> future : futures) {
+                Assertions.assertEquals("value", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert the loader ran once and the value was cached
+        Assertions.assertEquals(1, loads.get());
+        assertEqualsValueWrapper(cache.get("key"), "value");
+    }
+
+    @DisplayName("JUnit test for LRUCache loadValueFailure")
+    @Test
+    void loadValueFailure() throws Exception {
+        Cache cache = new LRUCache("test", 3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> cache.get("key", () -> {
+                    started.countDown();
+                    release.await();
+                    throw new IllegalArgumentException("failure");
+                })));
+            }
+
+            started.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert every caller received the failure of the loader
+            for (Future<Object> future : futures) {
+                Exception ex = Assertions.assertThrows(Exception.class, future::get);
+                Assertions.assertInstanceOf(Cache.ValueRetrievalException.class, ex.getCause());
+                Assertions.assertInstanceOf(IllegalArgumentException.class, ex.getCause().getCause());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @DisplayName("JUnit test for LRUCache expireAfterWrite")
+    @Test
+    void expireAfterWrite() {
+        AtomicLong ticker = new AtomicLong();
+        LRUCache cache = new LRUCache("test", 3, Duration.ofMinutes(5), null, ticker::get);
+        cache.put("key1", "value1");
+
+        ticker.addAndGet(Duration.ofMinutes(3).toNanos());
+        cache.put("key2", "value2");
+
+        // Reads do not extend the time to live
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+
+        ticker.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        // Assert result
+        Assertions.assertNull(cache.get("key1"));
+        assertEqualsValueWrapper(cache.get("key2"), "value2");
+
+        // Expired entry was removed by the timer wheel
+        cache.put("key3", "value3");
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @DisplayName("JUnit test for LRUCache expireAfterAccess")
+    @Test
+    void expireAfterAccess() {
+        AtomicLong ticker = new AtomicLong();
+        LRUCache cache = new LRUCache("test", 3, null, Duration.ofMinutes(5), ticker::get);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Visit key1 every 3 minutes
+        for (int i = 0; i < 10; i++) {
+            ticker.addAndGet(Duration.ofMinutes(3).toNanos());
+            assertEqualsValueWrapper(cache.get("key1"), "value1");
+        }
+
+        // Assert result
+        Assertions.assertNull(cache.get("key2"));
+
+        cache.evict("missing");
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @DisplayName("JUnit test for LRUCache expireManyEntries")
+    @Test
+    void expireManyEntries() {
+        AtomicLong ticker = new AtomicLong();
+        LRUCache cache = new LRUCache("test", 10_000, Duration.ofHours(2), null, ticker::get);
+
+        // Write an entry every second
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "value" + i);
+            ticker.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+
+        // 2h 46m 40s after the first write, the entries older than 2 hours expired
+        cache.put("key", "value");
+        Assertions.assertTrue(cache.size() <= 10_000 - 2800 + 1);
+        Assertions.assertNull(cache.get(2799));
+        assertEqualsValueWrapper(cache.get(2801), "value2801");
+    }
+
+    @DisplayName("JUnit test for LRUCache evictByWeight")
+    @Test
+    void evictByWeight() {
+        LRUCache cache = new LRUCache("test", 100, 10, (key, value) -> value.toString().length(), null, null);
+        cache.put("key1", "12345");
+        cache.put("key2", "12345");
+
+        // Add key over the maximum weight
+        cache.put("key3", "1");
+
+        // Assert the least recently used key is evicted
+        Assertions.assertNull(cache.get("key1"));
+        assertEqualsValueWrapper(cache.get("key2"), "12345");
+        assertEqualsValueWrapper(cache.get("key3"), "1");
+        Assertions.assertEquals(6, cache.weightedSize());
+
+        // Update a key with a heavier value
+        cache.put("key3", "123456");
+
+        // Assert result
+        Assertions.assertNull(cache.get("key2"));
+        Assertions.assertEquals(6, cache.weightedSize());
+
+        // Assert a value heavier than the cache is not kept and evicts nothing
+        cache.put("key4", "12345678901");
+        Assertions.assertNull(cache.get("key4"));
+        assertEqualsValueWrapper(cache.get("key3"), "123456");
+        Assertions.assertEquals(6, cache.weightedSize());
+    }
+
+    @DisplayName("JUnit test for LRUCache recordStats")
+    @Test
+    void recordStats() {
+        LRUCache cache = new LRUCache("test", 1);
+        cache.put("key1", "value1");
+        cache.get("key1");
+        cache.get("key2");
+
+        // Load a key over capacity
+        cache.get("key2", () -> "value2");
+
+        // Remove key explicitly
+        cache.evict("key2");
+
+        // Assert result
+        CacheStats stats = cache.stats();
+        Assertions.assertEquals(1, stats.hitCount());
+        Assertions.assertEquals(2, stats.missCount());
+        Assertions.assertEquals(2, stats.putCount());
+        Assertions.assertEquals(1, stats.evictionCount());
+        Assertions.assertEquals(1, stats.loadSuccessCount());
+        Assertions.assertEquals(0, cache.estimatedSize());
+    }
+
     void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
         Assertions.assertNotNull(vw);
         Assertions.assertEquals(vw.get(), value);
@@ -0,0 +1,56 @@
+package by.touchme.commentservice.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class MeteredCacheTest {
+
+    @DisplayName("JUnit test for MeteredCache recordStats")
+    @Test
+    void recordStats() {
+        MeteredCache cache = new MeteredCache(new ConcurrentMapCache("test"));
+        cache.put("key1", "value1");
+
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+        Assertions.assertNull(cache.get("key2"));
+
+        // Load a missing key and read it through the loader
+        Assertions.assertEquals("value2", cache.get("key2", () -> "value2"));
+        Assertions.assertEquals("value2", cache.get("key2", () -> "other"));
+
+        // Assert result
+        CacheStats stats = cache.stats();
+        Assertions.assertEquals(2, stats.hitCount());
+        Assertions.assertEquals(2, stats.missCount());
+        Assertions.assertEquals(2, stats.putCount());
+        Assertions.assertEquals(1, stats.loadSuccessCount());
+        Assertions.assertNull(cache.estimatedSize());
+    }
+
+    @DisplayName("JUnit test for MeteredCache recordLoadFailure")
+    @Test
+    void recordLoadFailure() {
+        MeteredCache cache = new MeteredCache(new ConcurrentMapCache("test"));
+
+        Assertions.assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key", () -> {
+            throw new IllegalStateException("failure");
+        }));
+
+        // Assert result
+        Assertions.assertEquals(1, cache.stats().loadFailureCount());
+        Assertions.assertEquals(0, cache.stats().loadSuccessCount());
+    }
+
+    void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
+        Assertions.assertNotNull(vw);
+        Assertions.assertEquals(vw.get(), value);
+    }
+}
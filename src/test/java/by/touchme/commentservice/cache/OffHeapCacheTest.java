@@ -0,0 +1,284 @@
+package by.touchme.commentservice.cache;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.PageDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class OffHeapCacheTest {
+
+    static final long MAX_BYTES = 1 << 20;
+
+    @DisplayName("JUnit test for OffHeapCache getCacheName")
+    @Test
+    void getCacheName() {
+        Cache cache = createCache(3);
+        Assertions.assertEquals("test", cache.getName());
+    }
+
+    @DisplayName("JUnit test for OffHeapCache getNonExistingCache")
+    @Test
+    void getNonExistingCache() {
+        Cache cache = createCache(3);
+        Assertions.assertNull(cache.get("1"));
+    }
+
+    @DisplayName("JUnit test for OffHeapCache getExistingCache")
+    @Test
+    void getExistingCache() {
+        Cache cache = createCache(3);
+        cache.put("key", "value");
+
+        assertEqualsValueWrapper(cache.get("key"), "value");
+    }
+
+    @DisplayName("JUnit test for OffHeapCache updateCacheValue")
+    @Test
+    void updateCacheValue() {
+        Cache cache = createCache(3);
+        cache.put("key", "value");
+
+        // Assert added key
+        assertEqualsValueWrapper(cache.get("key"), "value");
+
+        // Update value
+        cache.put("key", "newValue");
+
+        // Assert new key value
+        assertEqualsValueWrapper(cache.get("key"), "newValue");
+    }
+
+    @DisplayName("JUnit test for OffHeapCache deleteCacheByKey")
+    @Test
+    void deleteCacheByKey() {
+        Cache cache = createCache(3);
+        cache.put("key", "value");
+
+        // Assert added key
+        assertEqualsValueWrapper(cache.get("key"), "value");
+
+        // Remove key
+        cache.evict("key");
+
+        // Assert result
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @DisplayName("JUnit test for OffHeapCache deleteAllCache")
+    @Test
+    void deleteAllCache() {
+        Cache cache = createCache(3);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Assert added keys
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+        assertEqualsValueWrapper(cache.get("key2"), "value2");
+
+        // Remove all keys
+        cache.clear();
+
+        // Assert result
+        Assertions.assertNull(cache.get("key1"));
+        Assertions.assertNull(cache.get("key2"));
+
+        // Assert the memory is reused
+        cache.put("key3", "value3");
+        assertEqualsValueWrapper(cache.get("key3"), "value3");
+    }
+
+    @DisplayName("JUnit test for OffHeapCache storeComment")
+    @Test
+    void storeComment() {
+        Cache cache = createCache(3);
+        CommentDto comment = new CommentDto();
+        comment.setId(1L);
+        comment.setNewsId(2L);
+        comment.setUsername("user");
+        comment.setText("text");
+        comment.setTime(new Date());
+
+        cache.put(comment.getId(), comment);
+
+        // Assert the comment is deserialized on hit
+        CommentDto cached = cache.get(1L, CommentDto.class);
+        Assertions.assertEquals(comment, cached);
+        Assertions.assertNotSame(comment, cached);
+    }
+
+    @DisplayName("JUnit test for OffHeapCache storeCommentPage")
+    @Test
+    void storeCommentPage() {
+        Cache cache = createCache(3);
+        CommentDto comment = new CommentDto();
+        comment.setId(1L);
+        comment.setNewsId(2L);
+        comment.setText("text");
+        PageDto<CommentDto> page = new PageDto<>(new PageImpl<>(List.of(comment), PageRequest.of(0, 10), 1));
+
+        cache.put("2:0:0:10", page);
+
+        // Assert the page is deserialized on hit
+        Assertions.assertEquals(page, cache.get("2:0:0:10", PageDto.class));
+    }
+
+    @DisplayName("JUnit test for OffHeapCache keepReferencedEntries")
+    @Test
+    void keepReferencedEntries() {
+        OffHeapCache cache = createCache(3);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+
+        // Reference the first key
+        cache.get("key1");
+
+        // Add key over capacity
+        cache.put("key4", "value4");
+
+        // Assert the referenced key survived the clock
+        Assertions.assertEquals(3, cache.size());
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+        assertEqualsValueWrapper(cache.get("key4"), "value4");
+        Assertions.assertTrue(cache.get("key2") == null || cache.get("key3") == null);
+    }
+
+    @DisplayName("JUnit test for OffHeapCache manyEntries")
+    @Test
+    void manyEntries() {
+        OffHeapCache cache = createCache(10_000);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        // Remove every second key, the probe sequences are shifted back
+        for (int i = 0; i < 10_000; i += 2) {
+            cache.evict(i);
+        }
+
+        // Assert result
+        Assertions.assertEquals(5_000, cache.size());
+
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 2 == 0) {
+                Assertions.assertNull(cache.get(i));
+            } else {
+                assertEqualsValueWrapper(cache.get(i), "value" + i);
+            }
+        }
+    }
+
+    @DisplayName("JUnit test for OffHeapCache evictOnMemoryLimit")
+    @Test
+    void evictOnMemoryLimit() {
+        OffHeapCache cache = new OffHeapCache("test", 1_000, 2048, 1024, new GenericJackson2JsonRedisSerializer());
+        String value = "x".repeat(100);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, value + i);
+        }
+
+        // Assert the cache stays within its memory
+        Assertions.assertEquals(2048, cache.reservedBytes());
+        Assertions.assertTrue(cache.size() < 100);
+        assertEqualsValueWrapper(cache.get(99), value + 99);
+    }
+
+    @DisplayName("JUnit test for OffHeapCache skipLargeValue")
+    @Test
+    void skipLargeValue() {
+        OffHeapCache cache = new OffHeapCache("test", 3, 2048, 1024, new GenericJackson2JsonRedisSerializer());
+        cache.put("key", "value");
+
+        // Replace the value with one that does not fit into a slab
+        cache.put("key", "x".repeat(2048));
+
+        // Assert the old value is not served anymore
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(1, cache.stats().rejectionCount());
+    }
+
+    @DisplayName("JUnit test for OffHeapCache rejectSizeClassWithoutSlab")
+    @Test
+    void rejectSizeClassWithoutSlab() {
+        OffHeapCache cache = new OffHeapCache("test", 3, 1024, 1024, new GenericJackson2JsonRedisSerializer());
+        cache.put("small", "value");
+
+        // The only slab belongs to the size class of the small value
+        cache.put("large", "x".repeat(500));
+
+        // Assert the large value is rejected and the small one stays
+        Assertions.assertNull(cache.get("large"));
+        assertEqualsValueWrapper(cache.get("small"), "value");
+        Assertions.assertEquals(1, cache.stats().rejectionCount());
+        Assertions.assertEquals(0, cache.stats().evictionCount());
+    }
+
+    @DisplayName("JUnit test for OffHeapCache loadValueOnce")
+    @Test
+    void loadValueOnce() throws Exception {
+        OffHeapCache cache = createCache(3);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    release.await();
+                    return "value";
+                })));
+            }
+
+            // Let the other callers pile up behind the running loader
+            started.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> future : futures) {
+                Assertions.assertEquals("value", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert the loader ran once and the value was stored
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, cache.stats().loadSuccessCount());
+        assertEqualsValueWrapper(cache.get("key"), "value");
+    }
+
+    OffHeapCache createCache(int capacity) {
+        return new OffHeapCache("test", capacity, MAX_BYTES, new GenericJackson2JsonRedisSerializer());
+    }
+
+    void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
+        Assertions.assertNotNull(vw);
+        Assertions.assertEquals(vw.get(), value);
+    }
+}
@@ -0,0 +1,70 @@
+package by.touchme.commentservice.cache;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.dto.PageDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Date;
+import java.util.Collections;
+import java.util.List;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class RetainedSizeWeigherTest {
+
+    @DisplayName("JUnit test for RetainedSizeWeigher weighComment")
+    @Test
+    void weighComment() {
+        Weigher weigher = new RetainedSizeWeigher();
+
+        long small = weigher.weigh(1L, comment("a"));
+        long large = weigher.weigh(1L, comment("a".repeat(50_001)));
+
+        // Assert the weight grows with the text
+        Assertions.assertTrue(small > 0);
+        Assertions.assertEquals(50_000, large - small);
+    }
+
+    @DisplayName("JUnit test for RetainedSizeWeigher weighCommentList")
+    @Test
+    void weighCommentList() {
+        Weigher weigher = new RetainedSizeWeigher();
+
+        long one = weigher.weigh(1L, List.of(comment("text")));
+        long two = weigher.weigh(1L, List.of(comment("text"), comment("text")));
+
+        // Assert the list weighs its elements
+        Assertions.assertTrue(two - one >= weigher.weigh(1L, comment("text")) - weigher.weigh(1L, null));
+    }
+
+    @DisplayName("JUnit test for RetainedSizeWeigher weighCommentPage")
+    @Test
+    void weighCommentPage() {
+        Weigher weigher = new RetainedSizeWeigher();
+        List<CommentDto> comments = Collections.nCopies(20, comment("a".repeat(1_000)));
+
+        long page = weigher.weigh("1:0:0:20:UNSORTED",
+                new PageDto<>(new PageImpl<>(comments, PageRequest.of(0, 20), 100)));
+
+        // Assert a cached page weighs at least the text of its comments
+        Assertions.assertTrue(page > 20 * 1_000);
+        Assertions.assertTrue(page > weigher.weigh("1:0:0:20:UNSORTED", comments));
+    }
+
+    CommentDto comment(String text) {
+        CommentDto comment = new CommentDto();
+        comment.setId(1L);
+        comment.setNewsId(1L);
+        comment.setUsername("user");
+        comment.setText(text);
+        comment.setTime(new Date());
+        return comment;
+    }
+}
@@ -0,0 +1,40 @@
+package by.touchme.commentservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class StatisticsCacheMeterBinderTest {
+
+    @DisplayName("JUnit test for StatisticsCacheMeterBinder bindTo")
+    @Test
+    void bindTo() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LRUCache cache = new LRUCache("comments", 1, 1000, (key, value) -> 10, null, null);
+        new StatisticsCacheMeterBinder(cache, Tags.of("cache.manager", "cacheManager")).bindTo(registry);
+
+        cache.get("key1", () -> "value1");
+        cache.get("key1");
+        cache.get("key2", () -> "value2");
+
+        // Assert the common cache meters
+        Assertions.assertEquals(1, registry.get("cache.gets").tag("cache", "comments").tag("result", "hit")
+                .functionCounter().count());
+        Assertions.assertEquals(2, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(2, registry.get("cache.puts").functionCounter().count());
+        Assertions.assertEquals(2, registry.get("cache.size").gauge().value());
+
+        // Assert the load meters
+        Assertions.assertEquals(2, registry.get("cache.load").tag("result", "success").functionCounter().count());
+        Assertions.assertEquals(2, registry.get("cache.load.duration").timer().count());
+        Assertions.assertEquals(20, registry.get("cache.weighted.size").gauge().value());
+    }
+}
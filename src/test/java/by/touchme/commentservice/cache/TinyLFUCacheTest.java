@@ -0,0 +1,141 @@
+package by.touchme.commentservice.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class TinyLFUCacheTest {
+
+    @DisplayName("JUnit test for TinyLFUCache getCacheName")
+    @Test
+    void getCacheName() {
+        Cache cache = new TinyLFUCache("test", 3);
+        Assertions.assertEquals("test", cache.getName());
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache getNonExistingCache")
+    @Test
+    void getNonExistingCache() {
+        Cache cache = new TinyLFUCache("test", 3);
+        Assertions.assertNull(cache.get("1"));
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache getExistingCache")
+    @Test
+    void getExistingCache() {
+        Cache cache = new TinyLFUCache("test", 3);
+        cache.put("key", "value");
+
+        assertEqualsValueWrapper(cache.get("key"), "value");
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache updateCacheValue")
+    @Test
+    void updateCacheValue() {
+        Cache cache = new TinyLFUCache("test", 3);
+        cache.put("key", "value");
+
+        // Assert added key
+        assertEqualsValueWrapper(cache.get("key"), "value");
+
+        // Update value
+        cache.put("key", "newValue");
+
+        // Assert new key value
+        assertEqualsValueWrapper(cache.get("key"), "newValue");
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache deleteCacheByKey")
+    @Test
+    void deleteCacheByKey() {
+        Cache cache = new TinyLFUCache("test", 3);
+        cache.put("key", "value");
+
+        // Assert added key
+        assertEqualsValueWrapper(cache.get("key"), "value");
+
+        // Remove key
+        cache.evict("key");
+
+        // Assert result
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache deleteAllCache")
+    @Test
+    void deleteAllCache() {
+        Cache cache = new TinyLFUCache("test", 3);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Assert added keys
+        assertEqualsValueWrapper(cache.get("key1"), "value1");
+        assertEqualsValueWrapper(cache.get("key2"), "value2");
+
+        // Remove key
+        cache.clear();
+
+        // Assert result
+        Assertions.assertNull(cache.get("key1"));
+        Assertions.assertNull(cache.get("key2"));
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache keepFrequentOnScan")
+    @Test
+    void keepFrequentOnScan() {
+        Cache cache = new TinyLFUCache("test", 100);
+
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, "value" + i);
+        }
+
+        // Visit +5 for all hot keys
+        for (int visit = 0; visit < 5; visit++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        // Scan through keys that are seen only once
+        for (int i = 0; i < 500; i++) {
+            cache.put("scan" + i, "value" + i);
+        }
+
+        // Assert the hot keys were not flushed by the scan
+        for (int i = 0; i < 50; i++) {
+            assertEqualsValueWrapper(cache.get("hot" + i), "value" + i);
+        }
+    }
+
+    @DisplayName("JUnit test for TinyLFUCache evictByWeight")
+    @Test
+    void evictByWeight() {
+        TinyLFUCache cache = new TinyLFUCache("test", 100, 10, (key, value) -> value.toString().length(), null, null);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, "12345");
+        }
+
+        // Assert the cache is bounded by weight
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(10, cache.weightedSize());
+
+        // Update a key with a heavier value
+        cache.put("key99", "1234567890");
+
+        // Assert result
+        Assertions.assertEquals(1, cache.size());
+        assertEqualsValueWrapper(cache.get("key99"), "1234567890");
+    }
+
+    void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
+        Assertions.assertNotNull(vw);
+        Assertions.assertEquals(vw.get(), value);
+    }
+}
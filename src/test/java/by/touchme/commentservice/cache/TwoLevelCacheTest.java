@@ -0,0 +1,125 @@
+package by.touchme.commentservice.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Two nodes that share a {@link ConcurrentMapCacheManager} as a stand-in for Redis
+ * and an in-memory stand-in for the pub/sub channel.
+ */
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class TwoLevelCacheTest {
+
+    ConcurrentMapCacheManager shared;
+    TwoLevelCacheManager nodeA;
+    TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCacheManager();
+        List<TwoLevelCacheManager> nodes = new CopyOnWriteArrayList<>();
+        CacheInvalidationPublisher channel = invalidation -> nodes.forEach(node -> node.onInvalidation(invalidation));
+
+        nodeA = new TwoLevelCacheManager(shared, name -> new LRUCache(name, 3), channel);
+        nodeB = new TwoLevelCacheManager(shared, name -> new LRUCache(name, 3), channel);
+        nodes.add(nodeA);
+        nodes.add(nodeB);
+    }
+
+    @DisplayName("JUnit test for TwoLevelCache readThroughSharedTier")
+    @Test
+    void readThroughSharedTier() {
+        Cache cacheA = nodeA.getCache("test");
+        Cache cacheB = nodeB.getCache("test");
+        cacheA.put(1L, "value");
+
+        // Node B reads from the shared tier and fills its local tier
+        assertEqualsValueWrapper(cacheB.get(1L), "value");
+
+        // Change the shared tier behind the back of the nodes
+        shared.getCache("test").put(1L, "changed");
+
+        // Assert node B is served from the local tier
+        assertEqualsValueWrapper(cacheB.get(1L), "value");
+    }
+
+    @DisplayName("JUnit test for TwoLevelCache putInvalidatesOtherNodes")
+    @Test
+    void putInvalidatesOtherNodes() {
+        Cache cacheA = nodeA.getCache("test");
+        Cache cacheB = nodeB.getCache("test");
+        cacheA.put(1L, "value");
+        assertEqualsValueWrapper(cacheB.get(1L), "value");
+
+        // Update on node A
+        cacheA.put(1L, "newValue");
+
+        // Assert node B dropped its stale local copy
+        assertEqualsValueWrapper(cacheB.get(1L), "newValue");
+        assertEqualsValueWrapper(cacheA.get(1L), "newValue");
+    }
+
+    @DisplayName("JUnit test for TwoLevelCache evictInvalidatesOtherNodes")
+    @Test
+    void evictInvalidatesOtherNodes() {
+        Cache cacheA = nodeA.getCache("test");
+        Cache cacheB = nodeB.getCache("test");
+        cacheA.put(1L, "value");
+        cacheA.put(2L, "value");
+        assertEqualsValueWrapper(cacheB.get(1L), "value");
+        assertEqualsValueWrapper(cacheB.get(2L), "value");
+
+        // Remove key on node A
+        cacheA.evict(1L);
+
+        Assertions.assertNull(cacheB.get(1L));
+
+        // Clear on node B
+        cacheB.clear();
+
+        Assertions.assertNull(cacheA.get(2L));
+    }
+
+    @DisplayName("JUnit test for TwoLevelCache loadValueOnce")
+    @Test
+    void loadValueOnce() {
+        Cache cacheA = nodeA.getCache("test");
+        Cache cacheB = nodeB.getCache("test");
+
+        Assertions.assertEquals("value", cacheA.get(1L, () -> "value"));
+
+        // Assert node B finds the loaded value in the shared tier
+        Assertions.assertEquals("value", cacheB.get(1L, () -> "other"));
+    }
+
+    @DisplayName("JUnit test for TwoLevelCache loadValueFailure")
+    @Test
+    void loadValueFailure() {
+        Cache cache = nodeA.getCache("test");
+
+        Cache.ValueRetrievalException ex = Assertions.assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get(1L, () -> {
+                    throw new IllegalArgumentException("failure");
+                }));
+
+        // Assert the failure of the loader is wrapped only once
+        Assertions.assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+        Assertions.assertNull(cache.get(1L));
+    }
+
+    void assertEqualsValueWrapper(Cache.ValueWrapper vw, Object value) {
+        Assertions.assertNotNull(vw);
+        Assertions.assertEquals(vw.get(), value);
+    }
+}
@@ -2,6 +2,7 @@ package by.touchme.commentservice.controller;
 
 import by.touchme.commentservice.dto.CommentDto;
 import by.touchme.commentservice.service.PermissionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +15,17 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles(profiles = "test")
@@ -66,6 +75,7 @@ public class CommentControllerIntegrationTest {
                 )
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(String.valueOf(CORRECT_ID)))
                 .andDo(document(DOC_IDENTIFIER));
     }
 
@@ -206,4 +216,106 @@ public class CommentControllerIntegrationTest {
                 .andExpect(status().isNotFound())
                 .andDo(document(DOC_IDENTIFIER));
     }
+
+    @DisplayName("Integration test for CommentController.createAll")
+    @WithMockUser(username = "importer", authorities = {"ROLE_USER"})
+    @Test
+    void createAll() throws Exception {
+        List<CommentDto> comments = List.of(
+                comment(10L, "User_A", "Imported first"),
+                new CommentDto(),
+                comment(10L, "User_B", "Imported second")
+        );
+
+        String body = mockMvc.perform(
+                        post(URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(comments))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode result = objectMapper.readTree(body);
+
+        // Assert the invalid comment is reported without failing the others
+        Assertions.assertEquals(2, result.get("created").asInt());
+        Assertions.assertEquals(1, result.get("failed").asInt());
+        Assertions.assertEquals(201, result.get("items").get(0).get("status").asInt());
+        Assertions.assertEquals(400, result.get("items").get(1).get("status").asInt());
+        Assertions.assertEquals(201, result.get("items").get(2).get("status").asInt());
+
+        long id = result.get("items").get(2).get("id").asLong();
+        mockMvc.perform(get(URL + "/{id}", id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(permissionService).addPermissionsForUser(anyList(), any(), eq("importer"));
+
+        JsonNode counts = objectMapper.readTree(mockMvc.perform(get("/v1/news/comment/count").param("id", "10"))
+                .andReturn().getResponse().getContentAsString());
+        Assertions.assertEquals(2, counts.get("10").asInt());
+    }
+
+    @DisplayName("Integration test for CommentController.createAll with newline delimited JSON")
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    @Test
+    void createAllWithNdjson() throws Exception {
+        List<CommentDto> comments = List.of(
+                comment(11L, "User_A", "Streamed first"),
+                comment(11L, "User_B", "Streamed second")
+        );
+        String content = comments.stream()
+                .map(this::json)
+                .collect(Collectors.joining("\n"));
+
+        mockMvc.perform(
+                        post(URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(content)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @DisplayName("Integration test for CommentController.createAll with a comment violating a constraint")
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    @Test
+    void createAllWithConstraintViolation() throws Exception {
+        List<CommentDto> comments = List.of(
+                comment(12L, "User_A", "Kept first"),
+                comment(12L, "U".repeat(300), "Too long username"),
+                comment(12L, "User_B", "Kept second")
+        );
+
+        mockMvc.perform(
+                        post(URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(comments))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[2].id").isString());
+    }
+
+    CommentDto comment(Long newsId, String username, String text) {
+        CommentDto comment = new CommentDto();
+        comment.setNewsId(newsId);
+        comment.setUsername(username);
+        comment.setText(text);
+        return comment;
+    }
+
+    String json(CommentDto comment) {
+        try {
+            return objectMapper.writeValueAsString(comment);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package by.touchme.commentservice.controller;
+
+import by.touchme.commentservice.dto.CommentDto;
+import by.touchme.commentservice.service.PermissionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against a replica that never catches up with the primary.
+ */
+@ActiveProfiles(profiles = "test")
+@SpringBootTest(properties = {
+        "cache.type=lru",
+        "replica.nodes[0].url=" + CommentControllerReplicaIntegrationTest.REPLICA_URL,
+        "replica.sticky-window=0s",
+        "search.trigram-index=none"
+})
+@AutoConfigureMockMvc
+public class CommentControllerReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    final String URL = "/v1/comment";
+
+    @MockBean
+    PermissionService permissionService;
+
+    @DisplayName("Integration test for CommentController.getById after a delete the replica has not applied yet")
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    @Test
+    void getByIdAfterDeleteOnLaggingReplica() throws Exception {
+        CommentDto comment = new CommentDto();
+        comment.setNewsId(1L);
+        comment.setUsername("John Doe");
+        comment.setText("Lorem ipsum dolor sit amet, consectetur adipiscing elit.");
+
+        String body = mockMvc.perform(
+                        post(URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(comment))
+                )
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        // The replica received the comment, but not its delete
+        Map<String, Object> row = jdbcTemplate.queryForMap("select * from comments where id = ?", id);
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table if not exists comments (id bigint primary key, time timestamp,"
+                + " news_id bigint not null, username varchar(255) not null, text text not null)");
+        replica.update("insert into comments (id, time, news_id, username, text) values (?, ?, ?, ?, ?)",
+                id, row.get("time"), row.get("news_id"), row.get("username"), row.get("text"));
+
+        mockMvc.perform(delete(URL + "/{id}", id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Assert the deleted comment is neither read from the replica nor cached again
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get(URL + "/{id}", id).accept(MediaType.APPLICATION_JSON))
+                    .andDo(print())
+                    .andExpect(status().isNotFound());
+        }
+
+        Assertions.assertNull(cacheManager.getCache("comments").get(id));
+    }
+}
@@ -1,5 +1,6 @@
 package by.touchme.commentservice.controller;
 
+import by.touchme.commentservice.dto.BulkResultDto;
 import by.touchme.commentservice.dto.CommentDto;
 import by.touchme.commentservice.filter.JwtFilter;
 import by.touchme.commentservice.service.CommentService;
@@ -17,6 +18,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.when;
@@ -96,6 +98,27 @@ public class CommentControllerUnitTest {
                 .andExpect(status().isCreated());
     }
 
+    @DisplayName("JUnit test for CommentController.createAll")
+    @WithMockUser
+    @Test
+    void createAll() throws Exception {
+        CommentDto createComment = new CommentDto();
+        createComment.setNewsId(1L);
+        createComment.setUsername("John Doe");
+        createComment.setText("Lorem ipsum dolor sit amet, consectetur adipiscing elit.");
+
+        when(commentService.createAll(any(), any())).thenReturn(new BulkResultDto());
+
+        mockMvc.perform(
+                        post("/v1/comment/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(createComment)))
+                )
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
     @DisplayName("JUnit test for CommentController.updateById")
     @WithMockUser
     @Test
@@ -0,0 +1,212 @@
+package by.touchme.commentservice.controller;
+
+import by.touchme.commentservice.service.PermissionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles(profiles = "test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureRestDocs
+public class NewsCommentControllerIntegrationTest {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    final String URL = "/v1/news/{id}/comment";
+    final String DOC_IDENTIFIER = "news/{methodName}";
+
+    final Long NEWS_ID = 1L;
+
+    @MockBean
+    PermissionService permissionService;
+
+    @DisplayName("Integration test for NewsCommentController.getCursorPage")
+    @WithMockUser
+    @Test
+    void getCursorPage() throws Exception {
+        mockMvc.perform(
+                        get(URL, NEWS_ID)
+                                .param("after", "")
+                                .param("limit", "2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getCursorPage through the whole thread")
+    @WithMockUser
+    @Test
+    void getCursorPageThroughThread() throws Exception {
+        JsonNode offsetPage = read(get(URL, NEWS_ID).param("size", "1000"));
+        List<Long> expected = new ArrayList<>();
+        offsetPage.get("content").forEach(comment -> expected.add(comment.get("id").asLong()));
+
+        List<Long> actual = new ArrayList<>();
+        String after = "";
+
+        do {
+            JsonNode page = read(get(URL, NEWS_ID).param("after", after).param("limit", "2"));
+            page.get("content").forEach(comment -> actual.add(comment.get("id").asLong()));
+            after = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (after != null);
+
+        // Assert every comment is returned exactly once
+        Assertions.assertEquals(actual.size(), new HashSet<>(actual).size());
+        Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getCursorPage with invalid cursor")
+    @WithMockUser
+    @Test
+    void getCursorPageWithInvalidCursor() throws Exception {
+        mockMvc.perform(
+                        get(URL, NEWS_ID)
+                                .param("after", "invalid")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getSlice")
+    @WithMockUser
+    @Test
+    void getSlice() throws Exception {
+        mockMvc.perform(
+                        get(URL + "/slice", NEWS_ID)
+                                .param("page", "0")
+                                .param("size", "2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getCounts")
+    @WithMockUser
+    @Test
+    void getCounts() throws Exception {
+        mockMvc.perform(
+                        get("/v1/news/comment/count")
+                                .param("id", "1", "2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for the comment count of NewsCommentController.getPage and getCounts")
+    @WithMockUser
+    @Test
+    void getCountsMatchComments() throws Exception {
+        JsonNode page = read(get(URL, NEWS_ID).param("size", "1000"));
+        JsonNode counts = read(get("/v1/news/comment/count").param("id", String.valueOf(NEWS_ID)));
+
+        // Assert the stored count matches the comments of the news
+        Assertions.assertEquals(page.get("content").size(), page.get("metadata").get("totalElements").asInt());
+        Assertions.assertEquals(page.get("content").size(), counts.get(String.valueOf(NEWS_ID)).asInt());
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getLatest")
+    @WithMockUser
+    @Test
+    void getLatest() throws Exception {
+        mockMvc.perform(
+                        get("/v1/news/comment/latest")
+                                .param("id", "1", "2")
+                                .param("limit", "2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for the order of NewsCommentController.getLatest")
+    @WithMockUser
+    @Test
+    void getLatestMatchesPage() throws Exception {
+        JsonNode page = read(get(URL, NEWS_ID)
+                .param("size", "3")
+                .param("sort", "time,desc")
+                .param("sort", "id,desc"));
+        JsonNode latest = read(get("/v1/news/comment/latest")
+                .param("id", String.valueOf(NEWS_ID), "404")
+                .param("limit", "3"));
+
+        List<Long> pageIds = new ArrayList<>();
+        page.get("content").forEach(comment -> pageIds.add(comment.get("id").asLong()));
+        List<Long> latestIds = new ArrayList<>();
+        latest.get(String.valueOf(NEWS_ID)).forEach(comment -> latestIds.add(comment.get("id").asLong()));
+
+        // Assert the latest comments are the first page of the thread, newest first, and unknown news are empty
+        Assertions.assertEquals(3, latestIds.size());
+        Assertions.assertEquals(pageIds, latestIds);
+        Assertions.assertEquals(0, latest.get("404").size());
+    }
+
+    @DisplayName("Integration test for NewsCommentController.getCounts and getLatest with too many news")
+    @WithMockUser
+    @Test
+    void getFeedWithTooManyNews() throws Exception {
+        String[] newsIds = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).toArray(String[]::new);
+
+        // Assert one request cannot ask for any number of news
+        for (String url : List.of("/v1/news/comment/count", "/v1/news/comment/latest")) {
+            mockMvc.perform(
+                            get(url)
+                                    .param("id", newsIds)
+                                    .accept(MediaType.APPLICATION_JSON)
+                    )
+                    .andDo(print())
+                    .andExpect(status().isBadRequest());
+        }
+
+        read(get("/v1/news/comment/count").param("id", Arrays.copyOf(newsIds, 100)));
+    }
+
+    JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,409 @@
+package by.touchme.commentservice.controller;
+
+import by.touchme.commentservice.cache.StatisticsCache;
+import by.touchme.commentservice.criteria.SearchCriteria;
+import by.touchme.commentservice.criteria.SearchExpression;
+import by.touchme.commentservice.criteria.SearchOperation;
+import by.touchme.commentservice.dto.SearchDto;
+import by.touchme.commentservice.service.PermissionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles(profiles = "test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureRestDocs
+public class SearchCommentControllerIntegrationTest {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    final String URL = "/v1/comment/search";
+    final String EXPORT_URL = "/v1/comment/export";
+    final String DOC_IDENTIFIER = "search/{methodName}";
+
+    @Autowired
+    StatisticsCache searchPlanCache;
+
+    @MockBean
+    PermissionService permissionService;
+
+    @DisplayName("Integration test for SearchCommentController.search with full-text criteria")
+    @Test
+    void searchMatches() throws Exception {
+        String body = mockMvc.perform(
+                        get(URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(search("Pellent, HAB!")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode content = objectMapper.readTree(body).get("content");
+
+        // Assert every word of the value starts a word of each comment
+        Assertions.assertFalse(content.isEmpty());
+        content.forEach(comment -> {
+            String text = comment.get("text").asText().toLowerCase();
+            Assertions.assertTrue(text.matches("(.*\\W)?pellent.*") && text.matches("(.*\\W)?hab.*"), text);
+        });
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with full-text criteria without words")
+    @Test
+    void searchMatchesWithoutWords() throws Exception {
+        String body = mockMvc.perform(
+                        get(URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(search("&:*")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert nothing is found
+        Assertions.assertTrue(objectMapper.readTree(body).get("content").isEmpty());
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with substring criteria")
+    @Test
+    void searchContains() throws Exception {
+        String body = mockMvc.perform(
+                        get(URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(search(SearchOperation.CONTAINS, "ESQUE")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode content = objectMapper.readTree(body).get("content");
+
+        // Assert only comments containing the substring are found
+        Assertions.assertFalse(content.isEmpty());
+        content.forEach(comment -> Assertions.assertTrue(comment.get("text").asText().toLowerCase().contains("esque")));
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with numeric range criteria")
+    @Test
+    void searchGreaterThan() throws Exception {
+        SearchDto searchDto = search(SearchOperation.GREATER_THAN, "9");
+        searchDto.getCriteriaList().get(0).setKey("id");
+
+        JsonNode content = objectMapper.readTree(perform(searchDto)
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString()).get("content");
+
+        // Assert the ids are compared as numbers, "10" is less than "9" as a string
+        Assertions.assertFalse(content.isEmpty());
+        content.forEach(comment -> Assertions.assertTrue(comment.get("id").asLong() > 9));
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with time range criteria")
+    @Test
+    void searchTimeRange() throws Exception {
+        SearchDto searchDto = search(SearchOperation.LESS_THAN, "2000-01-01T00:00:00.000+00:00");
+        searchDto.getCriteriaList().get(0).setKey("time");
+
+        JsonNode content = objectMapper.readTree(perform(searchDto)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("content");
+
+        // Assert no comment was written before the date
+        Assertions.assertTrue(content.isEmpty());
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with unknown key")
+    @Test
+    void searchUnknownKey() throws Exception {
+        SearchDto searchDto = search(SearchOperation.EQUAL, "1");
+        searchDto.getCriteriaList().get(0).setKey("unknown");
+
+        perform(searchDto)
+                .andExpect(status().isBadRequest())
+                .andDo(document(DOC_IDENTIFIER));
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with value of wrong type")
+    @Test
+    void searchWrongType() throws Exception {
+        SearchDto searchDto = search(SearchOperation.EQUAL, "one");
+        searchDto.getCriteriaList().get(0).setKey("newsId");
+
+        perform(searchDto)
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search reusing the plan of the same shape")
+    @Test
+    void searchReusesPlan() throws Exception {
+        SearchDto first = search(SearchOperation.CONTAINS, "quisque");
+        first.getCriteriaList().add(search(SearchOperation.EQUAL, "1").getCriteriaList().get(0));
+        first.getCriteriaList().get(1).setKey("newsId");
+
+        SearchDto second = search(SearchOperation.EQUAL, "2");
+        second.getCriteriaList().get(0).setKey("newsId");
+        second.getCriteriaList().add(search(SearchOperation.CONTAINS, "risus").getCriteriaList().get(0));
+
+        perform(first).andExpect(status().isOk());
+        long hits = searchPlanCache.stats().hitCount();
+        perform(second).andExpect(status().isOk());
+
+        // Assert the criteria in another order and with other values share the plan
+        Assertions.assertEquals(hits + 1, searchPlanCache.stats().hitCount());
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with or expression")
+    @Test
+    void searchOr() throws Exception {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setExpression(or(
+                criteria("newsId", SearchOperation.EQUAL, "1"),
+                criteria("newsId", SearchOperation.EQUAL, "2")
+        ));
+
+        JsonNode content = objectMapper.readTree(perform(searchDto)
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString()).get("content");
+
+        // Assert the comments of both news are found in one search
+        Set<Long> newsIds = new HashSet<>();
+        content.forEach(comment -> newsIds.add(comment.get("newsId").asLong()));
+        Assertions.assertEquals(Set.of(1L, 2L), newsIds);
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with not expression")
+    @Test
+    void searchNot() throws Exception {
+        SearchExpression not = new SearchExpression();
+        not.setNot(or(
+                criteria("newsId", SearchOperation.EQUAL, "1"),
+                criteria("text", SearchOperation.CONTAINS, "risus")
+        ));
+
+        SearchDto searchDto = new SearchDto();
+        searchDto.setExpression(not);
+
+        JsonNode content = objectMapper.readTree(perform(searchDto)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("content");
+
+        // Assert neither alternative holds for any comment
+        Assertions.assertFalse(content.isEmpty());
+        content.forEach(comment -> {
+            Assertions.assertNotEquals(1L, comment.get("newsId").asLong());
+            Assertions.assertFalse(comment.get("text").asText().toLowerCase().contains("risus"));
+        });
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with contradictory criteria")
+    @Test
+    void searchContradiction() throws Exception {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setCriteriaList(List.of(
+                criteria("newsId", SearchOperation.EQUAL, "1").getCriteria(),
+                criteria("newsId", SearchOperation.EQUAL, "2").getCriteria()
+        ));
+
+        JsonNode page = objectMapper.readTree(perform(searchDto)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        // Assert nothing is found
+        Assertions.assertTrue(page.get("content").isEmpty());
+        Assertions.assertEquals(0, page.get("metadata").get("totalElements").asLong());
+    }
+
+    @DisplayName("Integration test for SearchCommentController.search with ambiguous expression")
+    @Test
+    void searchAmbiguousExpression() throws Exception {
+        SearchExpression expression = criteria("newsId", SearchOperation.EQUAL, "1");
+        expression.setNot(criteria("newsId", SearchOperation.EQUAL, "2"));
+
+        SearchDto searchDto = new SearchDto();
+        searchDto.setExpression(expression);
+
+        perform(searchDto)
+                .andExpect(status().isBadRequest());
+    }
+
+    SearchExpression or(SearchExpression... expressions) {
+        SearchExpression or = new SearchExpression();
+        or.setOr(List.of(expressions));
+        return or;
+    }
+
+    @DisplayName("Integration test for SearchCommentController.export")
+    @Test
+    void export() throws Exception {
+        SearchDto searchDto = search(SearchOperation.CONTAINS, "esque");
+        MvcResult result = mockMvc.perform(
+                        get(EXPORT_URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .content(objectMapper.writeValueAsString(searchDto))
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andDo(document(DOC_IDENTIFIER))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode page = objectMapper.readTree(perform(searchDto).andReturn().getResponse().getContentAsString());
+        String[] lines = body.split("\n");
+
+        // Assert every matching comment is written on a line of its own
+        Assertions.assertTrue(body.endsWith("\n"));
+        Assertions.assertEquals(page.get("metadata").get("totalElements").asInt(), lines.length);
+        for (String line : lines) {
+            Assertions.assertTrue(objectMapper.readTree(line).get("text").asText().toLowerCase().contains("esque"));
+        }
+    }
+
+    @DisplayName("Integration test for SearchCommentController.export as CSV")
+    @Test
+    void exportCsv() throws Exception {
+        MvcResult result = mockMvc.perform(
+                        get(EXPORT_URL)
+                                .param("sort", "id,desc")
+                                .accept("text/csv")
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\r\n");
+
+        // Assert all comments are written after the header, in the requested order
+        Assertions.assertEquals("id,newsId,username,text,time", lines[0]);
+        Assertions.assertTrue(lines.length > 2);
+        for (int i = 2; i < lines.length; i++) {
+            long previous = Long.parseLong(lines[i - 1].substring(0, lines[i - 1].indexOf(',')));
+            Assertions.assertTrue(Long.parseLong(lines[i].substring(0, lines[i].indexOf(','))) < previous);
+        }
+    }
+
+    @DisplayName("Integration test for SearchCommentController.export with quality values")
+    @Test
+    void exportByQuality() throws Exception {
+        MvcResult result = mockMvc.perform(
+                        get(EXPORT_URL)
+                                .header(HttpHeaders.ACCEPT, "text/csv;q=0.1, application/x-ndjson")
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert the preferred format is written, not the first acceptable one
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        result = mockMvc.perform(
+                        get(EXPORT_URL)
+                                .header(HttpHeaders.ACCEPT, "*/*;q=0.5, text/csv")
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"));
+    }
+
+    @DisplayName("Integration test for SearchCommentController.export with an unknown key")
+    @Test
+    void exportWithUnknownKey() throws Exception {
+        SearchDto searchDto = search(SearchOperation.EQUAL, "1");
+        searchDto.getCriteriaList().get(0).setKey("password");
+
+        // Assert the criteria are rejected before the export starts
+        mockMvc.perform(
+                        get(EXPORT_URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .content(objectMapper.writeValueAsString(searchDto))
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    SearchExpression criteria(String key, SearchOperation operation, String value) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setKey(key);
+        criteria.setValue(value);
+        criteria.setOperation(operation);
+
+        SearchExpression expression = new SearchExpression();
+        expression.setCriteria(criteria);
+        return expression;
+    }
+
+    ResultActions perform(SearchDto searchDto) throws Exception {
+        return mockMvc.perform(
+                        get(URL)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(searchDto))
+                )
+                .andDo(print());
+    }
+
+    SearchDto search(String value) {
+        return search(SearchOperation.MATCHES, value);
+    }
+
+    SearchDto search(SearchOperation operation, String value) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setKey("text");
+        criteria.setValue(value);
+        criteria.setOperation(operation);
+
+        SearchDto searchDto = new SearchDto();
+        searchDto.setCriteriaList(new ArrayList<>(List.of(criteria)));
+        return searchDto;
+    }
+}
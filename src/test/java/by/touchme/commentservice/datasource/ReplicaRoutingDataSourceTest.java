@@ -0,0 +1,167 @@
+package by.touchme.commentservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String NODE_QUERY = "select name from node";
+
+    private final DataSource primary = database("primary");
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource getConnection")
+    @Test
+    void getConnection() {
+        Routing routing = new Routing(List.of(new Replica("replica", database("replica"))),
+                ReplicaSelection.ROUND_ROBIN, Duration.ZERO, null);
+
+        // Assert only read-only transactions go to the replica
+        Assertions.assertEquals("replica", routing.read());
+        Assertions.assertEquals("primary", routing.write());
+        Assertions.assertEquals("primary", routing.jdbcTemplate.queryForObject(NODE_QUERY, String.class));
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource getConnection with round-robin selection")
+    @Test
+    void getConnectionWithRoundRobin() {
+        Routing routing = new Routing(
+                List.of(new Replica("first", database("first")), new Replica("second", database("second"))),
+                ReplicaSelection.ROUND_ROBIN, Duration.ZERO, null);
+
+        // Assert the replicas take turns
+        Assertions.assertEquals(
+                List.of("first", "second", "first", "second"),
+                List.of(routing.read(), routing.read(), routing.read(), routing.read())
+        );
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource getConnection right after a write of the user")
+    @Test
+    void getConnectionAfterWrite() {
+        Routing routing = new Routing(List.of(new Replica("replica", database("replica"))),
+                ReplicaSelection.LEAST_CONNECTIONS, Duration.ofMinutes(1), null);
+
+        authenticate("author");
+        routing.write();
+
+        // Assert the author reads the own write from the primary, everyone else from the replica
+        Assertions.assertEquals("primary", routing.read());
+
+        authenticate("reader");
+        Assertions.assertEquals("replica", routing.read());
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource getConnection when reading from the primary")
+    @Test
+    void getConnectionReadFromPrimary() {
+        Routing routing = new Routing(List.of(new Replica("replica", database("replica"))),
+                ReplicaSelection.ROUND_ROBIN, Duration.ZERO, null);
+
+        boolean previous = ReplicaRoutingDataSource.readFromPrimary(true);
+
+        // Assert the reads of the thread go to the primary until they are released again
+        try {
+            Assertions.assertEquals("primary", routing.read());
+        } finally {
+            ReplicaRoutingDataSource.readFromPrimary(previous);
+        }
+
+        Assertions.assertEquals("replica", routing.read());
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource getConnection when the replica is down")
+    @Test
+    void getConnectionWhenReplicaIsDown() {
+        Replica replica = new Replica("missing", new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE"));
+        Routing routing = new Routing(List.of(replica), ReplicaSelection.ROUND_ROBIN, Duration.ZERO, null);
+
+        // Assert the read falls back to the primary and the replica leaves the rotation
+        Assertions.assertEquals("primary", routing.read());
+        Assertions.assertFalse(replica.isAvailable());
+    }
+
+    @DisplayName("JUnit test for ReplicaRoutingDataSource checkReplicas")
+    @Test
+    void checkReplicas() {
+        Replica lagging = new Replica("lagging", database("lagging"));
+        Routing routing = new Routing(List.of(lagging), ReplicaSelection.ROUND_ROBIN, Duration.ZERO,
+                "select 10");
+
+        routing.dataSource.checkReplicas();
+
+        // Assert a replica behind the allowed lag is skipped
+        Assertions.assertEquals(Duration.ofSeconds(10), lagging.getLag());
+        Assertions.assertFalse(lagging.isAvailable());
+        Assertions.assertEquals("primary", routing.read());
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    /**
+     * In-memory database that knows its own name.
+     */
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("create table if not exists node (name varchar(32))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+
+        return dataSource;
+    }
+
+    private class Routing {
+        private final ReplicaRoutingDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        Routing(List<Replica> replicas, ReplicaSelection selection, Duration stickyWindow, String lagQuery) {
+            this.dataSource = new ReplicaRoutingDataSource(primary, replicas, selection, stickyWindow, lagQuery,
+                    Duration.ofSeconds(5));
+
+            DataSource lazyDataSource = new LazyConnectionDataSourceProxy(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(lazyDataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(lazyDataSource));
+        }
+
+        String read() {
+            transactionTemplate.setReadOnly(true);
+            return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(NODE_QUERY, String.class));
+        }
+
+        String write() {
+            transactionTemplate.setReadOnly(false);
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.update("update node set name = name");
+                return jdbcTemplate.queryForObject(NODE_QUERY, String.class);
+            });
+        }
+    }
+}
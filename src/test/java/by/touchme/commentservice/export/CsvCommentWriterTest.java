@@ -0,0 +1,37 @@
+package by.touchme.commentservice.export;
+
+import by.touchme.commentservice.dto.CommentDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class CsvCommentWriterTest {
+
+    @DisplayName("JUnit test for CsvCommentWriter write")
+    @Test
+    void write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (CsvCommentWriter writer = new CsvCommentWriter(out)) {
+            writer.write(new CommentDto(1L, 2L, "User_A", "Plain text", Date.from(Instant.parse("2023-08-01T10:15:30Z"))));
+            writer.write(new CommentDto(3L, 2L, "\u00dcn\u00efcode", "Say \"hi\", then\nleave", null));
+        }
+
+        // Assert fields with separators, quotes or line breaks are quoted and the quotes doubled
+        Assertions.assertEquals("id,newsId,username,text,time\r\n"
+                        + "1,2,User_A,Plain text,2023-08-01T10:15:30Z\r\n"
+                        + "3,2,\u00dcn\u00efcode,\"Say \"\"hi\"\", then\nleave\",\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package by.touchme.commentservice.fulltext;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Set;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class TrigramIndexTest {
+
+    @DisplayName("JUnit test for TrigramIndex candidates")
+    @Test
+    void candidates() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Sed viverra tellus");
+        index.put(2L, "Risus in hendrerit");
+        index.put(3L, "Vivamus arcu felis");
+
+        // Assert the documents with all trigrams of the substring are found, case insensitive
+        Assertions.assertEquals(Set.of(1L), index.candidates("VERRA"));
+        Assertions.assertEquals(Set.of(1L, 3L), index.candidates("viv"));
+        Assertions.assertEquals(Set.of(), index.candidates("lorem"));
+    }
+
+    @DisplayName("JUnit test for TrigramIndex candidates of short substring")
+    @Test
+    void candidatesOfShortSubstring() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Sed viverra tellus");
+
+        // Assert a substring without trigrams cannot be narrowed down
+        Assertions.assertNull(index.candidates("us"));
+    }
+
+    @DisplayName("JUnit test for TrigramIndex put and remove")
+    @Test
+    void putAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Sed viverra tellus");
+
+        // Replace the value, then remove the document
+        index.put(1L, "Risus in hendrerit");
+        Assertions.assertEquals(Set.of(), index.candidates("viverra"));
+        Assertions.assertEquals(Set.of(1L), index.candidates("hendrerit"));
+
+        index.remove(1L);
+
+        // Assert nothing is left
+        Assertions.assertEquals(Set.of(), index.candidates("hendrerit"));
+        Assertions.assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,138 @@
+package by.touchme.commentservice.id;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@ActiveProfiles(profiles = "test")
+@ExtendWith(SpringExtension.class)
+public class SnowflakeIdGeneratorTest {
+
+    @DisplayName("JUnit test for SnowflakeIdGenerator nextId")
+    @Test
+    void nextId() {
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, Clock.fixed(now, ZoneOffset.UTC));
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // Assert the ids carry the time and node and count up within a millisecond
+        Assertions.assertEquals(now, SnowflakeIdGenerator.timestamp(first));
+        Assertions.assertEquals(7, SnowflakeIdGenerator.node(first));
+        Assertions.assertEquals(first + 1, second);
+    }
+
+    @DisplayName("JUnit test for SnowflakeIdGenerator nextId when the clock moves backwards")
+    @Test
+    void nextIdWithClockMovingBackwards() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock);
+
+        long before = generator.nextId();
+        clock.instant = clock.instant.minusSeconds(5);
+        long after = generator.nextId();
+
+        // Assert the generator keeps counting from its last timestamp
+        Assertions.assertTrue(after > before);
+        Assertions.assertEquals(SnowflakeIdGenerator.timestamp(before), SnowflakeIdGenerator.timestamp(after));
+    }
+
+    @DisplayName("JUnit test for SnowflakeIdGenerator nextId with an exhausted sequence")
+    @Test
+    void nextIdWithExhaustedSequence() {
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, Clock.fixed(now, ZoneOffset.UTC));
+        long id = 0;
+
+        for (int i = 0; i <= 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            long next = generator.nextId();
+            Assertions.assertTrue(next > id);
+            id = next;
+        }
+
+        // Assert the generator borrows the next millisecond instead of reusing the sequence
+        Assertions.assertEquals(now.plusMillis(1), SnowflakeIdGenerator.timestamp(id));
+        Assertions.assertEquals(1, SnowflakeIdGenerator.node(id));
+    }
+
+    @DisplayName("JUnit test for SnowflakeIdGenerator nextId under contention")
+    @Test
+    void nextIdUnderContention() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    long previous = -1;
+
+                    for (int i = 0; i < 50_000; i++) {
+                        long id = generator.nextId();
+                        // Assert every thread sees increasing ids
+                        Assertions.assertTrue(id > previous);
+                        ids.add(id);
+                        previous = id;
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert no id was handed out twice
+        Assertions.assertEquals(8 * 50_000, ids.size());
+    }
+
+    @DisplayName("JUnit test for SnowflakeIdGenerator with a node out of range")
+    @Test
+    void nodeOutOfRange() {
+        // Assert the node must fit its 10 bits
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package by.touchme.commentservice.partition;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+public class CommentPartitionMaintenanceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+    private static final Timestamp BEFORE = Timestamp.valueOf(LocalDateTime.parse("2023-05-01T00:00:00"));
+
+    private final Clock clock = Clock.fixed(
+            LocalDateTime.parse("2024-05-17T10:15:00").atZone(ZONE).toInstant(), ZONE);
+
+    @DisplayName("JUnit test for CommentPartitionMaintenance dropPartitions")
+    @Test
+    void dropPartitions() {
+        JdbcTemplate session = Mockito.mock(JdbcTemplate.class);
+        CacheManager cacheManager = cacheManager();
+        Mockito.when(session.queryForList("select comments_partitions_before(?)", String.class, BEFORE))
+                .thenReturn(List.of("comments_p202303", "comments_p202304"));
+
+        int dropped = new CommentPartitionMaintenance(Mockito.mock(JdbcTemplate.class), cacheManager,
+                clock, 3, 12).dropPartitions(session);
+
+        // Assert whole months before the retention are released before they are detached and dropped
+        Assertions.assertEquals(2, dropped);
+        InOrder inOrder = Mockito.inOrder(session);
+        inOrder.verify(session).execute("select pg_advisory_lock(hashtext('comments_partitions'))");
+        for (String partition : List.of("comments_p202303", "comments_p202304")) {
+            inOrder.verify(session).queryForObject("select release_comments_partition(?)", Boolean.class, partition);
+            inOrder.verify(session).queryForObject("select detach_comments_partition(?)", Boolean.class, partition);
+            inOrder.verify(session).execute("drop table \"" + partition + "\"");
+        }
+        inOrder.verify(session).execute("select pg_advisory_unlock(hashtext('comments_partitions'))");
+
+        // Assert the caches forget the comments of the dropped partitions
+        Assertions.assertNull(cacheManager.getCache("comments").get(1L));
+        Assertions.assertNull(cacheManager.getCache("newsCommentPages").get(1L));
+    }
+
+    @DisplayName("JUnit test for CommentPartitionMaintenance dropPartitions when a later partition fails")
+    @Test
+    void dropPartitionsPartially() {
+        JdbcTemplate session = Mockito.mock(JdbcTemplate.class);
+        CacheManager cacheManager = cacheManager();
+        Mockito.when(session.queryForList("select comments_partitions_before(?)", String.class, BEFORE))
+                .thenReturn(List.of("comments_p202303", "comments_p202304"));
+        Mockito.when(session.queryForObject("select detach_comments_partition(?)", Boolean.class, "comments_p202304"))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        CommentPartitionMaintenance maintenance = new CommentPartitionMaintenance(Mockito.mock(JdbcTemplate.class),
+                cacheManager, clock, 3, 12);
+        Assertions.assertThrows(CannotAcquireLockException.class, () -> maintenance.dropPartitions(session));
+
+        // Assert the first partition is gone and the caches still forget its comments
+        Mockito.verify(session).execute("drop table \"comments_p202303\"");
+        Mockito.verify(session, Mockito.never()).execute("drop table \"comments_p202304\"");
+        Mockito.verify(session).execute("select pg_advisory_unlock(hashtext('comments_partitions'))");
+        Assertions.assertNull(cacheManager.getCache("comments").get(1L));
+        Assertions.assertNull(cacheManager.getCache("newsCommentPages").get(1L));
+    }
+
+    @DisplayName("JUnit test for CommentPartitionMaintenance dropPartitions without partitions past the retention")
+    @Test
+    void dropNoPartitions() {
+        JdbcTemplate session = Mockito.mock(JdbcTemplate.class);
+        CacheManager cacheManager = cacheManager();
+
+        int dropped = new CommentPartitionMaintenance(Mockito.mock(JdbcTemplate.class), cacheManager,
+                clock, 3, 12).dropPartitions(session);
+
+        // Assert the caches are kept when nothing is dropped
+        Assertions.assertEquals(0, dropped);
+        Assertions.assertNotNull(cacheManager.getCache("comments").get(1L));
+    }
+
+    @DisplayName("JUnit test for CommentPartitionMaintenance maintain without retention")
+    @Test
+    void maintainWithoutRetention() {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForObject(Mockito.eq("select create_comments_partitions(?)"),
+                Mockito.eq(Integer.class), Mockito.any(Object[].class))).thenReturn(1);
+
+        new CommentPartitionMaintenance(jdbcTemplate, new ConcurrentMapCacheManager(), clock, 3, null).maintain();
+
+        // Assert the coming months are created and nothing is dropped
+        Mockito.verify(jdbcTemplate).queryForObject("select create_comments_partitions(?)", Integer.class, 3);
+        Mockito.verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    CacheManager cacheManager() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager("comments", "newsCommentPages");
+        cacheManager.getCache("comments").put(1L, "comment");
+        cacheManager.getCache("newsCommentPages").put(1L, "page");
+        return cacheManager;
+    }
+}